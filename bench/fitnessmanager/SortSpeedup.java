@@ -0,0 +1,75 @@
+package fitnessmanager;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SortSpeedup measures how much faster MemberSorter sorts members by name
+ * on a ForkJoinPool than sequentially, for each parallelism from 1 to the
+ * number of cores (or the most given)
+ * Not a JUnit test: timings depend on the machine, so it only reports them.
+ * Each sort is run several times and the fastest run is kept. Every
+ * parallel sort is checked against the sequential one
+ * Usage: java fitnessmanager.SortSpeedup [members] [most parallelism]
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class SortSpeedup {
+    private static final int DEFAULT_MEMBERS = 1_000_000;
+    private static final int RUNS = 5;
+    private static final String[] NAMES = {"Ann", "Bob", "Cy", "Dee", "Ed", "Flo", "Gus", "Hal", "Ivy", "Jo"};
+
+    /**
+     * Runs the measurements and prints a line for each parallelism
+     * @param args the number of members, then the most parallelism to measure
+     */
+    public static void main(String[] args){
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEMBERS;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int most = args.length > 1 ? Integer.parseInt(args[1]) : cores;
+        Random random = new Random(1);
+        String[] lnames = new String[size];
+        String[] fnames = new String[size];
+        int[] dobs = new int[size];
+        byte[] locations = new byte[size];
+        int[] expires = new int[size];
+        for (int i = 0; i < size; i++){
+            lnames[i] = NAMES[random.nextInt(NAMES.length)] + random.nextInt(size);
+            fnames[i] = NAMES[random.nextInt(NAMES.length)];
+            dobs[i] = Date.of(1 + random.nextInt(12), 1 + random.nextInt(28), 1950 + random.nextInt(50)).pack();
+            locations[i] = (byte) random.nextInt(Location.values().length);
+            expires[i] = dobs[i];
+        }
+        System.out.println("members: " + size + ", cores: " + cores);
+        int[][] sequential = new int[1][];
+        long base = fastest(() -> sequential[0] = MemberSorter.sortedRows(lnames, fnames, dobs, locations,
+                expires, size, SortCategory.NAME, null));
+        System.out.printf("sequential      %6d ms%n", base);
+        for (int parallelism = 1; parallelism <= most; parallelism++){
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            int[][] parallel = new int[1][];
+            long time = fastest(() -> parallel[0] = MemberSorter.sortedRows(lnames, fnames, dobs, locations,
+                    expires, size, SortCategory.NAME, pool));
+            pool.shutdown();
+            if (!Arrays.equals(sequential[0], parallel[0])){
+                throw new IllegalStateException("parallelism " + parallelism + " sorted differently");
+            }
+            System.out.printf("parallelism %-3d %6d ms  speedup %.2f%n", parallelism, time, base / (double) time);
+        }
+    }
+
+    /**
+     * Runs a sort several times
+     * @param sort the sort to run
+     * @return the fastest run in milliseconds
+     */
+    private static long fastest(Runnable sort){
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++){
+            long start = System.nanoTime();
+            sort.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return Math.max(best, 1);
+    }
+}
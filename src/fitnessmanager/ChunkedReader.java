@@ -0,0 +1,159 @@
+package fitnessmanager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * ChunkedReader reads a text file in chunks of whole lines, in parallel
+ * The file is split into chunks of about Constant.LOAD_CHUNK_BYTES,
+ * each moved forward to the start of a line. Each chunk is memory-mapped
+ * and the mapping itself is handed to a parser, which reads the bytes
+ * where they are instead of from a copy. With more than
+ * one chunk (and more than one core) the chunks are parsed in parallel
+ * on the common ForkJoinPool. The results always come back in file
+ * order, so whatever is done with them afterwards happens in the same
+ * order however many threads parsed them
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class ChunkedReader {
+    private static final int PROBE_BYTES = 256;                 //Bytes read at a time looking for a line break
+
+    /**
+     * ChunkParser parses the lines of one chunk
+     * Called from several threads at once, on different chunks
+     * @param <R> what a chunk is parsed into
+     */
+    interface ChunkParser<R> {
+        /**
+         * Parses the lines of a chunk
+         * @param chunk the chunk, mapped from the file, from index 0 to its
+         *              limit: only whole lines (the last one may have no
+         *              line break if it ends the file)
+         * @return what the chunk was parsed into
+         */
+        R parse(ByteBuffer chunk);
+    }
+
+    /**
+     * Not used, ChunkedReader only has static methods
+     */
+    private ChunkedReader(){
+    }
+
+    /**
+     * Reads a file in chunks of whole lines
+     * @param path the file to read
+     * @param parser parses each chunk
+     * @param <R> what a chunk is parsed into
+     * @return what each chunk was parsed into, in file order
+     * @throws IOException if the file can't be read
+     */
+    static <R> ArrayList<R> read(Path path, ChunkParser<R> parser) throws IOException {
+        return read(path, parser, Constant.LOAD_CHUNK_BYTES.getValue());
+    }
+
+    /**
+     * Reads a file in chunks of whole lines of about a given size
+     * @param path the file to read
+     * @param parser parses each chunk
+     * @param chunkBytes bytes in a chunk, before moving its end to the start of a line
+     * @param <R> what a chunk is parsed into
+     * @return what each chunk was parsed into, in file order
+     * @throws IOException if the file can't be read
+     */
+    static <R> ArrayList<R> read(Path path, ChunkParser<R> parser, int chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            ArrayList<Long> bounds = new ArrayList<>();
+            bounds.add(0L);
+            long chunk = chunkBytes;
+            for (long start = 0; start < size; ){
+                long end = start + chunk >= size ? size : lineStart(channel, start + chunk, size);
+                if (end - start > Integer.MAX_VALUE - chunk){
+                    throw new IOException(path + ": line too long");
+                }
+                bounds.add(end);
+                start = end;
+            }
+            int chunks = bounds.size() - 1;
+            ArrayList<R> results = new ArrayList<>(chunks);
+            if (chunks > 1 && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                List<ForkJoinTask<R>> tasks = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++){
+                    long start = bounds.get(i);
+                    long end = bounds.get(i + 1);
+                    tasks.add(ForkJoinPool.commonPool().submit(() -> parseChunk(channel, start, end, parser)));
+                }
+                for (ForkJoinTask<R> task : tasks){
+                    results.add(task.join());
+                }
+            }
+            else {
+                for (int i = 0; i < chunks; i++){
+                    results.add(parseChunk(channel, bounds.get(i), bounds.get(i + 1), parser));
+                }
+            }
+            return results;
+        }
+        catch (UncheckedIOException e) {                               //Thrown while mapping a chunk, maybe rethrown by join
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()){
+                if (cause instanceof IOException){
+                    throw (IOException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the start of the first line at or after a position
+     * @param channel the file
+     * @param position where to start looking
+     * @param size size of the file
+     * @return index after the first line break at or after position,
+     *         or the size of the file if there is none
+     * @throws IOException if the file can't be read
+     */
+    private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BYTES);
+        while (position < size){
+            probe.clear();
+            int read = channel.read(probe, position);
+            for (int i = 0; i < read; i++){
+                if (probe.get(i) == '\n'){
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    /**
+     * Maps a chunk of the file and parses it
+     * @param channel the file
+     * @param start index of the first byte of the chunk
+     * @param end index after the last byte of the chunk
+     * @param parser parses the chunk
+     * @param <R> what a chunk is parsed into
+     * @return what the chunk was parsed into
+     */
+    private static <R> R parseChunk(FileChannel channel, long start, long end, ChunkParser<R> parser){
+        ByteBuffer chunk;
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return parser.parse(chunk);
+    }
+}
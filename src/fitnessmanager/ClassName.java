@@ -9,18 +9,16 @@ public enum ClassName {
     SPINNING,
     CARDIO;
 
+    private static final EnumCodec<ClassName> CODEC = new EnumCodec<>(values());   //Looks constants up by name
+
     /**
      * Method takes in class name and returns a ClassName enum
+     * Looks the name up in a table built once, without creating any objects
      * @param str, string that represents ClassName name
      * @return ClassName string was referring to if it exists,
      *         null otherwise
      */
-    public static ClassName stringToClassName(String str){
-        for (ClassName className: ClassName.values()){
-            if (str.equalsIgnoreCase(className.name())){
-                return className;
-            }
-        }
-        return null;
+    public static ClassName stringToClassName(CharSequence str){
+        return CODEC.lookup(str);
     }
 }
@@ -1,15 +1,37 @@
 package fitnessmanager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * ClassSchedule is a class to store and sort fitness classes
  * Stores the following data:
  *  - FitnessClass list
  *  - Size of list
+ *  - Sessions of the classes each member is checked into or waiting
+ *      for, in an interval tree per member
+ *  - Classes by class type, instructor and location, in an array
+ *      with a slot for every combination, so finding a class is one
+ *      array read
+ * Members should be checked into and dropped from classes through the
+ * schedule, so the classes they're in are known without searching
+ * every class's roster. Checking members in and out through the
+ * schedule is safe to do from several threads: a member's sessions are
+ * only read or changed inside compute on the member's entry in the
+ * enrollment index, which holds the entry while the member's classes
+ * and sessions are read or changed
  * @author Arya Shetty, John Greaney-Cheng
  */
 public class ClassSchedule {
+    private static final int INSTRUCTORS = Instructor.values().length;
+    private static final int LOCATIONS = Location.values().length;
+
     private FitnessClass[] classes;
     private int numClasses;
+    private FitnessClass[] classIndex;                      //See indexOf, null if there's no such class
+    private ConcurrentHashMap<Member, IntervalTree<FitnessClass>> enrollments;  //Member -> sessions of their classes, minutes after Monday midnight
 
     /**
      * Creates a Class Schedule instance
@@ -18,16 +40,24 @@ public class ClassSchedule {
     public ClassSchedule(){
         this.numClasses = 0;
         this.classes = new FitnessClass[Constant.STARTING_CAPACITY.getValue()];
+        this.classIndex = new FitnessClass[ClassName.values().length * INSTRUCTORS * LOCATIONS];
+        this.enrollments = new ConcurrentHashMap<>();
     }
 
     /**
      * Adds a class into the schedule
      * If the array is at full capacity, grow list by 4
+     * If an equal class is already in the schedule, that one is still
+     * the one found by classAt
      * @param fc the class to add into the schedule
      */
     public void addClass(FitnessClass fc){
         classes[numClasses] = fc;
         numClasses++;
+        int index = indexOf(fc.getClassName(), fc.getInstructor(), fc.getLocation());
+        if (index >= 0 && classIndex[index] == null){
+            classIndex[index] = fc;
+        }
         if(numClasses == classes.length){
             grow();
         }
@@ -48,6 +78,40 @@ public class ClassSchedule {
         this.classes = newList;
     }
 
+    /**
+     * Returns the slot of a class in the class index
+     * Format: (class type * number of instructors + instructor)
+     *          * number of locations + location, using ordinals
+     * @param className class type of the class
+     * @param instructor instructor of the class
+     * @param location location of the class
+     * @return slot of the class,
+     *         -1 if any of them is null
+     */
+    private static int indexOf(ClassName className, Instructor instructor, Location location){
+        if (className == null || instructor == null || location == null){
+            return -1;
+        }
+        return (className.ordinal() * INSTRUCTORS + instructor.ordinal()) * LOCATIONS + location.ordinal();
+    }
+
+    /**
+     * Returns the fitness class in class schedule with a class type,
+     * instructor and location
+     * @param className class type of the class to find
+     * @param instructor instructor of the class to find
+     * @param location location of the class to find
+     * @return fitness class in class schedule if it exists
+     *         null otherwise
+     */
+    public FitnessClass classAt(ClassName className, Instructor instructor, Location location){
+        int index = indexOf(className, instructor, location);
+        if (index < 0){
+            return null;
+        }
+        return classIndex[index];
+    }
+
     /**
      * Returns fitness class in class schedule equal to input parameter
      * @param fc the fitness class to find in class schedule
@@ -55,55 +119,185 @@ public class ClassSchedule {
      *         null otherwise
      */
     public FitnessClass classExists(FitnessClass fc){
-        for(int i = 0; i < numClasses; i++){
-            if(fc.equals(classes[i])){
-                return classes[i];
+        return classAt(fc.getClassName(), fc.getInstructor(), fc.getLocation());
+    }
+
+    /**
+     * Returns a class a member is checked into, or on the waitlist of,
+     * that has a session overlapping a session of another class
+     * Each session is looked up in the member's interval tree, so this
+     * is O(log n + k) per session for a member in n classes, k of them
+     * overlapping
+     * Reads the member's sessions while holding their entry, like enroll
+     * and checkOut, and leaves the entry as it was
+     * @param member the member to look up
+     * @param fc the class to check against
+     * @return a different class with an overlapping session if one exists
+     *         null otherwise
+     */
+    public FitnessClass conflictingClass(Member member, FitnessClass fc){
+        FitnessClass[] conflict = new FitnessClass[1];
+        this.enrollments.compute(member, (key, sessions) -> {
+            if (sessions != null){
+                conflict[0] = findConflict(sessions, fc);
             }
-        }
-        return null;
+            return sessions;                                    //Unchanged, only read
+        });
+        return conflict[0];
     }
 
     /**
-     * Returns fitness class in class schedule containing input member
-     * @param member member to find enrolled in fitness class in class schedule
-     * @return fitness class containing member in class schedule if it exists
+     * Finds a class in a member's sessions overlapping a session of another class
+     * @param sessions the member's sessions
+     * @param fc the class to check against
+     * @return a different class with an overlapping session if one exists
      *         null otherwise
      */
-    public FitnessClass findClassMemberEnrolledIn(Member member){
-        for(int i = 0; i < numClasses; i++){
-            if(classes[i].find(member) != null){
-                return classes[i];
+    private static FitnessClass findConflict(IntervalTree<FitnessClass> sessions, FitnessClass fc){
+        int[] fcSessions = fc.getSessions();
+        for (int i = 0; i < fcSessions.length; i += 2){
+            for (FitnessClass other : sessions.overlapping(fcSessions[i], fcSessions[i + 1])){
+                if (!other.equals(fc)){
+                    return other;
+                }
             }
         }
         return null;
     }
 
+    /**
+     * Checks a member into a class in this schedule
+     * @param fc the class to check into
+     * @param member the member to check in
+     * @return true if member was checked into the class
+     *         false otherwise
+     */
+    public boolean checkIn(FitnessClass fc, Member member){
+        return enroll(fc, member) == EnrollmentStatus.CHECKED_IN;
+    }
+
+    /**
+     * Checks a member into a class in this schedule, or puts them on its
+     * waitlist if it's full
+     * Done while holding the member's entry in the enrollment index, so
+     * the member can't take two overlapping classes even when checked
+     * in from several threads at once
+     * @param fc the class to check into
+     * @param member the member to check in
+     * @return TIME_CONFLICT if member is in or waiting for another
+     *              class with an overlapping session,
+     *         otherwise the result of checking into the class
+     */
+    public EnrollmentStatus enroll(FitnessClass fc, Member member){
+        EnrollmentStatus[] status = new EnrollmentStatus[1];
+        this.enrollments.compute(member, (key, sessions) -> {
+            if (sessions != null && findConflict(sessions, fc) != null){
+                status[0] = EnrollmentStatus.TIME_CONFLICT;
+                return sessions;
+            }
+            status[0] = fc.enroll(member);
+            if (status[0] == EnrollmentStatus.CHECKED_IN || status[0] == EnrollmentStatus.WAITLISTED){
+                if (sessions == null){
+                    sessions = new IntervalTree<>();
+                }
+                int[] fcSessions = fc.getSessions();
+                for (int i = 0; i < fcSessions.length; i += 2){
+                    sessions.add(fcSessions[i], fcSessions[i + 1], fc);
+                }
+            }
+            return sessions;
+        });
+        return status[0];
+    }
+
+    /**
+     * Drops a member from a class in this schedule, or from its waitlist
+     * A spot freed up goes to the next member on the class's waitlist,
+     * whose sessions were already in the enrollment index
+     * @param fc the class to drop
+     * @param member the member to drop
+     * @return true if member was dropped from the class or its waitlist
+     *         false otherwise
+     */
+    public boolean checkOut(FitnessClass fc, Member member){
+        boolean[] dropped = new boolean[1];
+        this.enrollments.compute(member, (key, sessions) -> {
+            dropped[0] = fc.checkOut(member);
+            if (sessions == null){
+                return null;
+            }
+            if (dropped[0]){
+                int[] fcSessions = fc.getSessions();
+                for (int i = 0; i < fcSessions.length; i += 2){
+                    sessions.remove(fcSessions[i], fcSessions[i + 1], fc);
+                }
+            }
+            return sessions.isEmpty() ? null : sessions;        //Null once not in or waiting for any class
+        });
+        return dropped[0];
+    }
+
+    /**
+     * Drops members, and the guests they checked in, from every class
+     * Each member is dropped while holding their entry in the enrollment
+     * index, like checkOut, so a member checked in at the same time is
+     * either dropped with their sessions or kept with them
+     * @param members the members to drop from the schedule
+     * @return number of members and guests dropped from classes
+     */
+    public int dropMembers(Set<Member> members){
+        int[] dropped = new int[1];
+        for (Member member : members){
+            this.enrollments.compute(member, (key, sessions) -> {
+                for (int i = 0; i < numClasses; i++){
+                    dropped[0] += classes[i].dropMember(member);
+                }
+                return null;                                    //In and waiting for no class now
+            });
+        }
+        return dropped[0];
+    }
+
     /**
      * Prints out schedule of classes for the day the gym is run
      * Includes the class name, instructor name, time,
      * followed by all members and guests that have checked into the class
+     * and the members on its waitlist
      */
     public void printClasses(){
         for(int classIndex = 0; classIndex < numClasses; classIndex++){
             System.out.println(classes[classIndex].toString());
             if (!classes[classIndex].memberListIsEmpty()){
                 System.out.println("- Participants - ");
-                int size = classes[classIndex].getMemberListSize();
-                for (int memberIndex = 0; memberIndex < size; memberIndex++){
-                    System.out.println(classes[classIndex].getIndexedMemberFromMemberList(memberIndex).toString());
+                for (Member member : classes[classIndex].getMemberList()){
+                    System.out.println(member.toString());
                 }
             }
             if (!classes[classIndex].guestListIsEmpty()) {
                 System.out.println("- Guests - ");
-                int size = classes[classIndex].getGuestListSize();
-                for (int guestIndex = 0; guestIndex < size; guestIndex++){
-                    System.out.println(classes[classIndex].getIndexedMemberFromGuestList(guestIndex).toString());
+                for (Member memberWithGuest : classes[classIndex].getGuestList()){
+                    System.out.println(memberWithGuest.toString());
+                }
+            }
+            ArrayList<Member> waitlist = classes[classIndex].getWaitlist();
+            if (!waitlist.isEmpty()) {
+                System.out.println("- Waitlist - ");
+                for (Member member : waitlist){
+                    System.out.println(member.toString());
                 }
             }
 
         }
     }
 
+    /**
+     * Returns the classes in this schedule
+     * @return the classes, in the order they were added
+     */
+    FitnessClass[] getClasses(){
+        return Arrays.copyOf(this.classes, this.numClasses);
+    }
+
     /**
      * Checks if this schedule is empty
      * @return true if this schedule is empty, false otherwise
@@ -0,0 +1,719 @@
+package fitnessmanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ColumnarMemberDatabase is an alternative to MemberDatabase that stores
+ * gym members column by column instead of as Member objects
+ * Stores the following data, one array (column) per field:
+ *  - First and last name references
+ *  - Date of birth and expiration date, packed into ints (see Date)
+ *  - Location of gym membership, as Location ordinal
+ *  - Membership type, as MembershipType ordinal
+ *  - Number of guest passes
+ *  - Member hash code, plus an open addressing table of rows for lookup
+ * Removed rows are left empty (a null first name) until half the rows
+ * are empty, then the columns are compacted, keeping the order members
+ * were added in.
+ * Member objects are only created when a member is returned or printed.
+ * They are views of their row: guest passes used, returned or set
+ * through a Family or Premium view are read from and written back to
+ * the guest pass column, found again by name and birthday each time,
+ * so a view stays valid when the columns are compacted.
+ * Has no sorted, name or expiration indexes: sorting, searching by
+ * name and finding expiring members scan the columns.
+ * Not safe to share between threads
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class ColumnarMemberDatabase implements MemberStore {
+    private static final Location[] LOCATIONS = Location.values();
+    private static final MembershipType[] TYPES = MembershipType.values();
+    private static final int EMPTY = 0;                 //Empty lookup table slot, slots store row + 1
+
+    private String[] fnames;
+    private String[] lnames;
+    private int[] dobs;
+    private int[] expires;
+    private byte[] locations;
+    private byte[] types;
+    private byte[] guestPasses;
+    private int[] hashes;
+    private int[] table;            //Open addressing table of rows, length is a power of two
+    private int size;               //Number of rows used, including removed ones
+    private int count;              //Number of members in database
+
+    /**
+     * Creates a columnar member database object
+     * Column starting capacity is 4
+     */
+    public ColumnarMemberDatabase(){
+        this.size = 0;
+        this.count = 0;
+        allocateColumns(Constant.STARTING_CAPACITY.getValue());
+        this.table = new int[Constant.STARTING_CAPACITY.getValue() * 2];
+    }
+
+    /**
+     * Replaces every column with a new one of the given capacity,
+     * keeping the members already stored
+     * @param capacity number of members the columns can hold
+     */
+    private void allocateColumns(int capacity){
+        this.fnames = copyOf(this.fnames, new String[capacity]);
+        this.lnames = copyOf(this.lnames, new String[capacity]);
+        this.dobs = copyOf(this.dobs, new int[capacity]);
+        this.expires = copyOf(this.expires, new int[capacity]);
+        this.locations = copyOf(this.locations, new byte[capacity]);
+        this.types = copyOf(this.types, new byte[capacity]);
+        this.guestPasses = copyOf(this.guestPasses, new byte[capacity]);
+        this.hashes = copyOf(this.hashes, new int[capacity]);
+    }
+
+    /**
+     * Copies the stored rows of an old column into a new column
+     * @param oldColumn the column to copy from, null if there is none yet
+     * @param newColumn the column to copy into
+     * @return the new column
+     */
+    private <T> T copyOf(Object oldColumn, T newColumn){
+        if (oldColumn != null){
+            System.arraycopy(oldColumn, 0, newColumn, 0, this.size);
+        }
+        return newColumn;
+    }
+
+    /**
+     * Returns the lookup table slot a hash code starts probing from
+     * @param hash hash code of a member
+     * @return lookup table slot
+     */
+    private int slotOf(int hash){
+        return (hash ^ (hash >>> 16)) & (this.table.length - 1);
+    }
+
+    /**
+     * Checks if member is stored in database
+     * Probes the lookup table from the member's hash code, comparing
+     * stored hash codes first and the names and birthday only on a match
+     * @param member the member to find in the database
+     * @return the row of the member,
+     *         -1 if the member is not in the database
+     */
+    private int find(Member member){
+        int hash = member.hashCode();
+        int packedDob = member.getDob().pack();
+        for (int slot = slotOf(hash); this.table[slot] != EMPTY; slot = (slot + 1) & (this.table.length - 1)){
+            int row = this.table[slot] - 1;
+            if (this.hashes[row] == hash && this.fnames[row] != null && this.dobs[row] == packedDob
+                    && this.fnames[row].equalsIgnoreCase(member.getFname())
+                    && this.lnames[row].equalsIgnoreCase(member.getLname())){
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a row to the lookup table
+     * @param row the row to add
+     */
+    private void insertIntoTable(int row){
+        int slot = slotOf(this.hashes[row]);
+        while (this.table[slot] != EMPTY){
+            slot = (slot + 1) & (this.table.length - 1);
+        }
+        this.table[slot] = row + 1;
+    }
+
+    /**
+     * Rebuilds the lookup table from the stored rows
+     * The table is kept at most half full
+     * @param rows number of rows the table must have room for
+     */
+    private void rebuildTable(int rows){
+        int length = this.table.length;
+        while (length < rows * 2){
+            length = length * 2;
+        }
+        this.table = new int[length];
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] != null){
+                insertIntoTable(row);
+            }
+        }
+    }
+
+    /**
+     * Removes a row from the lookup table
+     * Later slots of the same probe run are moved back into the gap,
+     * so every row can still be found from its starting slot
+     * @param row the row to remove
+     */
+    private void deleteFromTable(int row){
+        int mask = this.table.length - 1;
+        int gap = slotOf(this.hashes[row]);
+        while (this.table[gap] != row + 1){
+            gap = (gap + 1) & mask;
+        }
+        for (int slot = (gap + 1) & mask; this.table[slot] != EMPTY; slot = (slot + 1) & mask){
+            int home = slotOf(this.hashes[this.table[slot] - 1]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)){          //Home is at or before the gap
+                this.table[gap] = this.table[slot];
+                gap = slot;
+            }
+        }
+        this.table[gap] = EMPTY;
+    }
+
+    /**
+     * Moves the members left down over the removed rows, in the same
+     * order, then rebuilds the lookup table
+     */
+    private void compact(){
+        int kept = 0;
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] == null){
+                continue;
+            }
+            this.fnames[kept] = this.fnames[row];
+            this.lnames[kept] = this.lnames[row];
+            this.dobs[kept] = this.dobs[row];
+            this.expires[kept] = this.expires[row];
+            this.locations[kept] = this.locations[row];
+            this.types[kept] = this.types[row];
+            this.guestPasses[kept] = this.guestPasses[row];
+            this.hashes[kept] = this.hashes[row];
+            kept++;
+        }
+        for (int row = kept; row < this.size; row++){
+            this.fnames[row] = null;
+            this.lnames[row] = null;
+        }
+        this.size = kept;
+        rebuildTable(this.size);
+    }
+
+    /**
+     * Tries to find member in database equal to input parameter
+     * @param member the member to find in the database
+     * @return a new Member (or Family or Premium view) holding the
+     *              stored data of the member equal to the input parameter
+     *         null if there is no such member in the database
+     */
+    @Override
+    public Member findMember(Member member){
+        int row = find(member);
+        if (row != -1){
+            return memberAt(row);
+        }
+        return null;
+    }
+
+    /**
+     * Creates a member object from the columns of a row
+     * Family and Premium members are views that keep their guest
+     * passes in the row, see FamilyView and PremiumView
+     * @param row the row to create the member from
+     * @return member holding the data of the row
+     */
+    private Member memberAt(int row){
+        Date dob = Date.unpack(this.dobs[row]);
+        Date expire = Date.unpack(this.expires[row]);
+        Location location = LOCATIONS[this.locations[row]];
+        switch (TYPES[this.types[row]]){
+            case FAMILY:
+                Family family = new FamilyView(this.fnames[row], this.lnames[row], dob, expire, location);
+                family.guestPasses = this.guestPasses[row];
+                return family;
+            case PREMIUM:
+                Premium premium = new PremiumView(this.fnames[row], this.lnames[row], dob, expire, location);
+                premium.guestPasses = this.guestPasses[row];
+                return premium;
+            default:
+                return new Member(this.fnames[row], this.lnames[row], dob, expire, location);
+        }
+    }
+
+    /**
+     * Reads the guest passes of a view from its row
+     * Leaves the view unchanged if its member has been removed
+     * @param view the family or premium view
+     */
+    private void loadGuestPasses(Family view){
+        int row = find(view);
+        if (row != -1){
+            view.guestPasses = this.guestPasses[row];
+        }
+    }
+
+    /**
+     * Writes the guest passes of a view back to its row
+     * Does nothing if its member has been removed
+     * @param view the family or premium view
+     */
+    private void storeGuestPasses(Family view){
+        int row = find(view);
+        if (row != -1){
+            this.guestPasses[row] = (byte) view.guestPasses;
+        }
+    }
+
+    /**
+     * Adds a member into the database
+     * First check that the member is not already in the database,
+     * then write its fields to the end of every column.
+     * If the columns are at full capacity, double their capacity
+     * @param member the member to add in the database
+     * @return true if member was added, false if not added
+     */
+    @Override
+    public boolean add(Member member){
+        if (find(member) != -1){
+            return false;
+        }
+        append(member);
+        return true;
+    }
+
+    /**
+     * Adds many members into the database at once, e.g. when restoring
+     * a snapshot or loading a chunk of a member list
+     * Makes room in the columns and lookup table for all of them first.
+     * Members already in the database are not added; their entries in
+     * the array are replaced by the stored member
+     * @param members the members to add, in order
+     * @return number of members added
+     */
+    @Override
+    public int addAll(Member[] members){
+        reserve(members.length);
+        int added = 0;
+        for (int i = 0; i < members.length; i++){
+            int row = find(members[i]);
+            if (row != -1){
+                members[i] = memberAt(row);
+                continue;
+            }
+            append(members[i]);
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Makes room in the columns and lookup table for more members,
+     * so adding them doesn't grow them again and again
+     * @param members number of members about to be added
+     */
+    @Override
+    public void reserve(int members){
+        if (this.size + members > this.fnames.length){
+            allocateColumns(this.size + members);
+        }
+        if ((this.size + members) * 2 > this.table.length){
+            rebuildTable(this.size + members);
+        }
+    }
+
+    /**
+     * Writes a member's fields to the end of every column, and adds
+     * its row to the lookup table
+     * If the columns are at full capacity, double their capacity
+     * @param member the member to add, not already in the database
+     */
+    private void append(Member member){
+        if (this.size == this.fnames.length){
+            allocateColumns(this.size * 2);
+        }
+        int row = this.size;
+        this.fnames[row] = member.getFname();
+        this.lnames[row] = member.getLname();
+        this.dobs[row] = member.getDob().pack();
+        this.expires[row] = member.getExpire().pack();
+        this.locations[row] = (byte) member.getLocation().ordinal();
+        this.hashes[row] = member.hashCode();
+        if (member instanceof Premium){
+            this.types[row] = (byte) MembershipType.PREMIUM.ordinal();
+        }
+        else if (member instanceof Family){
+            this.types[row] = (byte) MembershipType.FAMILY.ordinal();
+        }
+        else {
+            this.types[row] = (byte) MembershipType.STANDARD.ordinal();
+        }
+        if (member instanceof Family){
+            this.guestPasses[row] = (byte) ((Family) member).getGuestPasses();
+        }
+        else {
+            this.guestPasses[row] = 0;
+        }
+        this.size = this.size + 1;
+        this.count = this.count + 1;
+        if (this.size * 2 > this.table.length){
+            rebuildTable(this.size);
+        }
+        else {
+            insertIntoTable(row);
+        }
+    }
+
+    /**
+     * Removes a specific member from the database
+     * First checks to see if member is in the database,
+     * if it exists removes its row from the lookup table and leaves the
+     * row empty. Once half the rows are empty the columns are compacted,
+     * so each remove takes constant time on average
+     * @param member the member to remove from the database
+     * @return true if member was removed, false if not removed
+     */
+    @Override
+    public boolean remove(Member member){
+        int row = find(member);
+        if (row == -1){
+            return false;
+        }
+        deleteFromTable(row);
+        this.fnames[row] = null;
+        this.lnames[row] = null;
+        this.count = this.count - 1;
+        if (this.count * 2 < this.size){
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if this database is empty
+     * @return true if this database is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty(){
+        return this.count == 0;
+    }
+
+    /**
+     * Returns the members in this database
+     * @return the members, in the order they were added
+     */
+    @Override
+    public ArrayList<Member> members(){
+        ArrayList<Member> members = new ArrayList<>(this.count);
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] != null){
+                members.add(memberAt(row));
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Returns the members whose membership expires between two dates
+     * Scans the expiration column, then sorts the rows found by date
+     * @param from the first expiration date to include
+     * @param to the last expiration date to include
+     * @return members expiring from the first date to the last date,
+     *              ordered by expiration date (members expiring the same
+     *              day are in the order they were added)
+     */
+    @Override
+    public ArrayList<Member> expiringBetween(Date from, Date to){
+        ArrayList<Member> expiring = new ArrayList<>();
+        if (from.compareTo(to) > 0){
+            return expiring;
+        }
+        int first = from.pack();
+        int last = to.pack();
+        long[] found = new long[Math.min(this.count, Constant.STARTING_CAPACITY.getValue())];
+        int matches = 0;
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] != null && this.expires[row] >= first && this.expires[row] <= last){
+                if (matches == found.length){
+                    found = Arrays.copyOf(found, found.length * 2);
+                }
+                found[matches++] = ((long) this.expires[row] << 32) | row;      //Sorts by date, then row
+            }
+        }
+        Arrays.sort(found, 0, matches);
+        for (int i = 0; i < matches; i++){
+            expiring.add(memberAt((int) found[i]));
+        }
+        return expiring;
+    }
+
+    /**
+     * Returns the earliest expiration date of any member
+     * Scans the expiration column
+     * @return the earliest expiration date,
+     *         null if there are no members
+     */
+    @Override
+    public Date earliestExpiration(){
+        int earliest = Integer.MAX_VALUE;
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] != null && this.expires[row] < earliest){
+                earliest = this.expires[row];
+            }
+        }
+        return this.count == 0 ? null : Date.intern(earliest);
+    }
+
+    /**
+     * Finds members whose last or first name starts with a prefix
+     * Members matching by last name come first, ordered by last name then
+     * first name, followed by members only matching by first name, the
+     * same as MemberDatabase. Scans the name columns, and only sorts the
+     * members that match
+     * @param prefix the start of the name, not case-sensitive
+     * @param limit the most members to return
+     * @return the matching members, at most limit of them
+     */
+    @Override
+    public ArrayList<Member> searchByPrefix(String prefix, int limit){
+        String folded = NameIndex.fold(prefix);
+        TreeMap<String, Integer> byLastName = new TreeMap<>();
+        TreeMap<String, Integer> byFirstName = new TreeMap<>();
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] == null){
+                continue;
+            }
+            if (NameIndex.fold(this.lnames[row]).startsWith(folded)){
+                byLastName.put(NameIndex.key(this.lnames[row], this.fnames[row], Date.unpack(this.dobs[row])), row);
+            }
+            else if (NameIndex.fold(this.fnames[row]).startsWith(folded)){
+                byFirstName.put(NameIndex.key(this.fnames[row], this.lnames[row], Date.unpack(this.dobs[row])), row);
+            }
+        }
+        ArrayList<Member> matches = new ArrayList<>();
+        for (Map<String, Integer> rows : Arrays.asList(byLastName, byFirstName)){
+            for (int row : rows.values()){
+                if (matches.size() == limit){
+                    return matches;
+                }
+                matches.add(memberAt(row));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Prints out unsorted list of members
+     */
+    @Override
+    public void print(){
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] != null){
+                System.out.println(memberAt(row).toString());
+            }
+        }
+    }
+
+    /**
+     * Prints out unsorted list of members with their fees and guest passes
+     */
+    @Override
+    public void printWithFees(){
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] == null){
+                continue;
+            }
+            Member member = memberAt(row);
+            System.out.println(member.toString() + ", Membership Fee: $" + member.membershipFee());
+        }
+    }
+
+    /**
+     * Prints out sorted list of members
+     * Could be ordered by
+     *  - county their gym is in (alphabetically),
+     *      if it's the same then it compares the zipcode of the gym location.
+     *  - expiration date of their membership
+     *  - member last name then first name (alphabetically)
+     * Sorts an array of rows with MemberSorter, straight from the columns,
+     * so the stored order of members is not changed. Removed rows are
+     * compacted away first
+     * @param category the category to sort members by
+     */
+    @Override
+    public void sortedPrint(SortCategory category){
+        if (this.count < this.size){
+            compact();
+        }
+        int[] rows = MemberSorter.sortedRows(this.lnames, this.fnames, this.dobs, this.locations,
+                this.expires, this.size, category);
+        for (int row : rows){
+            System.out.println(memberAt(row).toString());
+        }
+    }
+
+    /**
+     * Estimates the heap bytes used per member, including the names
+     * and the unused capacity of the columns and lookup table
+     * @return estimated bytes per member, 0 if the database is empty
+     */
+    public double bytesPerMember(){
+        if (this.count == 0){
+            return 0;
+        }
+        int capacity = this.fnames.length;
+        long bytes = 2 * MemoryEstimate.array(MemoryEstimate.REFERENCE, capacity)
+                + 3 * MemoryEstimate.array(4, capacity)
+                + 3 * MemoryEstimate.array(1, capacity)
+                + MemoryEstimate.array(4, this.table.length);
+        for (int row = 0; row < this.size; row++){
+            if (this.fnames[row] == null){
+                continue;
+            }
+            bytes += MemoryEstimate.string(this.fnames[row]) + MemoryEstimate.string(this.lnames[row]);
+        }
+        return bytes / (double) this.count;
+    }
+
+    /**
+     * FamilyView is a family member returned by the database
+     * Its guest passes are kept in its row of the guest pass column
+     */
+    private final class FamilyView extends Family {
+        /**
+         * Creates a view of a family member's row
+         * @param fname first name of the member
+         * @param lname last name of the member
+         * @param dob birthday of the member
+         * @param expire expiration date of the member's gym membership
+         * @param location the gym the member belongs to
+         */
+        FamilyView(String fname, String lname, Date dob, Date expire, Location location){
+            super(fname, lname, dob, expire, location);
+        }
+
+        /**
+         * Uses a guest pass of the row, see Family.useGuestPass
+         * @return true if guest pass is used, false otherwise
+         */
+        @Override
+        public boolean useGuestPass(){
+            loadGuestPasses(this);
+            boolean used = super.useGuestPass();
+            storeGuestPasses(this);
+            return used;
+        }
+
+        /**
+         * Returns a guest pass to the row, see Family.returnGuestPass
+         * @return true if guest pass is returned, false otherwise
+         */
+        @Override
+        public boolean returnGuestPass(){
+            loadGuestPasses(this);
+            boolean returned = super.returnGuestPass();
+            storeGuestPasses(this);
+            return returned;
+        }
+
+        /**
+         * Getter method for the number of guest passes left in the row
+         * @return number of guest passes left
+         */
+        @Override
+        int getGuestPasses(){
+            loadGuestPasses(this);
+            return super.getGuestPasses();
+        }
+
+        /**
+         * Setter method for the number of guest passes left in the row
+         * @param guestPasses number of guest passes left
+         */
+        @Override
+        void setGuestPasses(int guestPasses){
+            super.setGuestPasses(guestPasses);
+            storeGuestPasses(this);
+        }
+
+        /**
+         * Returns String representation of this member, with the guest
+         * passes left in the row
+         * @return String representation of this member
+         */
+        @Override
+        public String toString(){
+            loadGuestPasses(this);
+            return super.toString();
+        }
+    }
+
+    /**
+     * PremiumView is a premium member returned by the database
+     * Its guest passes are kept in its row of the guest pass column
+     */
+    private final class PremiumView extends Premium {
+        /**
+         * Creates a view of a premium member's row
+         * @param fname first name of the member
+         * @param lname last name of the member
+         * @param dob birthday of the member
+         * @param expire expiration date of the member's gym membership
+         * @param location the gym the member belongs to
+         */
+        PremiumView(String fname, String lname, Date dob, Date expire, Location location){
+            super(fname, lname, dob, expire, location);
+        }
+
+        /**
+         * Uses a guest pass of the row, see Family.useGuestPass
+         * @return true if guest pass is used, false otherwise
+         */
+        @Override
+        public boolean useGuestPass(){
+            loadGuestPasses(this);
+            boolean used = super.useGuestPass();
+            storeGuestPasses(this);
+            return used;
+        }
+
+        /**
+         * Returns a guest pass to the row, see Premium.returnGuestPass
+         * @return true if guest pass is returned, false otherwise
+         */
+        @Override
+        public boolean returnGuestPass(){
+            loadGuestPasses(this);
+            boolean returned = super.returnGuestPass();
+            storeGuestPasses(this);
+            return returned;
+        }
+
+        /**
+         * Getter method for the number of guest passes left in the row
+         * @return number of guest passes left
+         */
+        @Override
+        int getGuestPasses(){
+            loadGuestPasses(this);
+            return super.getGuestPasses();
+        }
+
+        /**
+         * Setter method for the number of guest passes left in the row
+         * @param guestPasses number of guest passes left
+         */
+        @Override
+        void setGuestPasses(int guestPasses){
+            super.setGuestPasses(guestPasses);
+            storeGuestPasses(this);
+        }
+
+        /**
+         * Returns String representation of this member, with the guest
+         * passes left in the row
+         * @return String representation of this member
+         */
+        @Override
+        public String toString(){
+            loadGuestPasses(this);
+            return super.toString();
+        }
+    }
+}
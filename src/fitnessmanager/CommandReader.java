@@ -0,0 +1,137 @@
+package fitnessmanager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * CommandReader splits commands read from a stream into tokens
+ * Tokens are separated by spaces, tabs and line breaks, the same as a
+ * Scanner's, but are cut straight out of a byte buffer instead of being
+ * matched with a regular expression.
+ * Stores the following data:
+ *  - the stream commands are read from
+ *  - the buffer of bytes read, and the part of it not yet split
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class CommandReader {
+    private final InputStream in;
+    private byte[] buffer;
+    private int position;                                       //Index of the next byte to split
+    private int limit;                                          //Index after the last byte read
+    private boolean ended;                                      //True once the stream has no more bytes
+
+    /**
+     * Creates a CommandReader
+     * @param in the stream to read commands from
+     * @param bufferBytes bytes to read from the stream at a time
+     */
+    CommandReader(InputStream in, int bufferBytes){
+        this.in = in;
+        this.buffer = new byte[bufferBytes];
+    }
+
+    /**
+     * Checks if there is another token, reading more of the stream if needed
+     * Waits for input if the stream has none yet
+     * @return true if there is another token, false at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    boolean hasNext() throws IOException {
+        while (true){
+            while (this.position < this.limit){
+                if (!isSpace(this.buffer[this.position])){
+                    return true;
+                }
+                this.position++;
+            }
+            if (!fill()){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reads the next token
+     * @return the next token
+     * @throws IOException if the stream can't be read
+     * @throws NoSuchElementException if the stream has no more tokens
+     */
+    String next() throws IOException {
+        if (!hasNext()){
+            throw new NoSuchElementException();
+        }
+        int end = this.position;
+        while (true){
+            while (end < this.limit && !isSpace(this.buffer[end])){
+                end++;
+            }
+            if (end < this.limit || this.ended){
+                break;
+            }
+            end -= this.position;                               //Token runs past the buffer, keep it and read more
+            if (!fill()){
+                end += this.position;
+                break;
+            }
+            end += this.position;
+        }
+        String token = new String(this.buffer, this.position, end - this.position, StandardCharsets.UTF_8);
+        this.position = end;
+        return token;
+    }
+
+    /**
+     * Checks if another token was already read from the stream,
+     * without waiting for input
+     * @return true if another token is in the buffer, false otherwise
+     */
+    boolean hasBuffered(){
+        for (int i = this.position; i < this.limit; i++){
+            if (!isSpace(this.buffer[i])){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads more of the stream into the buffer
+     * The bytes not yet split are first moved to the start of the buffer,
+     * which doubles in size if they fill it
+     * @return true if any bytes were read, false at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    private boolean fill() throws IOException {
+        if (this.ended){
+            return false;
+        }
+        int kept = this.limit - this.position;
+        if (kept == this.buffer.length){
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+        }
+        else if (this.position > 0){
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, kept);
+        }
+        this.position = 0;
+        this.limit = kept;
+        int read = this.in.read(this.buffer, kept, this.buffer.length - kept);
+        if (read < 0){
+            this.ended = true;
+            return false;
+        }
+        this.limit += read;
+        return true;
+    }
+
+    /**
+     * Checks if a byte separates tokens
+     * @param b the byte to check
+     * @return true if b is a space, tab, line break or other control character
+     */
+    private static boolean isSpace(byte b){
+        return b >= 0 && b <= ' ';
+    }
+}
@@ -17,7 +17,28 @@ public enum Constant {
     QUARTERLY_NUM_MONTHS(3),
     ANNUALLY_NUM_MONTHS(12),
     FAMILY_MAX_PASS_NUM(1),
-    PREMIUM_MAX_PASS_NUM(3);
+    PREMIUM_MAX_PASS_NUM(3),
+    PARALLEL_SORT_THRESHOLD(1 << 15),
+    NAME_SEARCH_LIMIT(10),
+    MAX_DAYS_IN_MONTH(31),
+    INTERN_FIRST_YEAR(1900),
+    INTERN_LAST_YEAR(2099),
+    CLASS_FIELDS(4),
+    MINUTES_PER_HOUR(60),
+    HOURS_PER_DAY(24),
+    MINUTES_PER_DAY(24 * 60),
+    DAYS_PER_WEEK(7),
+    DAY_ABBREVIATION_LENGTH(3),
+    DEFAULT_CLASS_MINUTES(60),
+    MEMBER_FIELDS(5),
+    MEMBER_ROW_BYTES(32),
+    OUTPUT_BUFFER_CHARS(1 << 16),
+    LOAD_CHUNK_BYTES(1 << 22),
+    JOURNAL_GROUP_SIZE(64),
+    JOURNAL_SEGMENT_BYTES(1 << 26),
+    COMMAND_BUFFER_BYTES(1 << 16),
+    BATCH_OUTPUT_BYTES(1 << 20),
+    WRITE_LOCK_STRIPES(64);
 
     private final int value;
 
@@ -1,26 +1,42 @@
 package fitnessmanager;
 
 import java.util.Calendar;
-import java.util.StringTokenizer;
 
 /**
  * Date Class is a blueprint for date objects
- * Stores the month, day, and year of date
+ * Stores the month, day, and year of date, packed into one int
+ * ordered the same way as compareTo: year in the high 16 bits, then
+ * month, then day in the low 8 bits. A date whose month or day is
+ * outside 0 to 255, or whose year is outside the 16-bit range, doesn't
+ * fit: it also keeps the month, day and year it was made with, which
+ * the getters, toString, isValid, compareTo and equals use, and its
+ * packed form has them clamped (month and day 0, year capped).
+ * Dates never change, so equal dates from the static factories are
+ * shared (interned) when they are valid and in the years
+ * Constant.INTERN_FIRST_YEAR to Constant.INTERN_LAST_YEAR
  * @author Arya Shetty, John Greaney-Cheng
  */
 public class Date implements Comparable<Date>{
-    private int year;
-    private int month;
-    private int day;
+    static final long MALFORMED = Long.MIN_VALUE;                   //Returned by parsePacked for malformed input
+    static final long UNPACKED = Long.MIN_VALUE + 1;                //Returned by parsePacked for a date that doesn't fit
+    private static final int MAX_DIGITS = 9;                        //Longest number that fits in an int
+    private static final int[] LAST_DAYS = lastDays();              //Month number -> last day (28 for February)
+    private static final int MONTHS = Constant.ANNUALLY_NUM_MONTHS.getValue();
+    private static final int DAYS = Constant.MAX_DAYS_IN_MONTH.getValue();
+    private static final Date[] INTERNED = new Date[(Constant.INTERN_LAST_YEAR.getValue()
+            - Constant.INTERN_FIRST_YEAR.getValue() + 1) * MONTHS * DAYS];
+
+    private final int packed;
+    private final int[] unpacked;                                   //{month, day, year} if they don't fit, null otherwise
 
     /**
      * Creates a date object where the date is today
      */
     public Date(){
         Calendar calendar = Calendar.getInstance();
-        this.month = calendar.get(Calendar.MONTH) + 1;
-        this.day = calendar.get(Calendar.DATE);
-        this.year = calendar.get(Calendar.YEAR);
+        this.packed = pack(calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DATE),
+                calendar.get(Calendar.YEAR));
+        this.unpacked = null;
     }
 
     /**
@@ -30,12 +46,21 @@ public class Date implements Comparable<Date>{
      *  - Day is 2
      *  - Year is 2003
      * @param date the date being stored as a String
+     * @throws NumberFormatException if date is not in the input format
      */
     public Date(String date){
-        StringTokenizer splitDate = new StringTokenizer(date, "/");
-        this.month = Integer.parseInt(splitDate.nextToken());
-        this.day = Integer.parseInt(splitDate.nextToken());
-        this.year = Integer.parseInt(splitDate.nextToken());
+        long packed = parsePacked(date, 0, date.length());
+        if (packed == MALFORMED){
+            throw new NumberFormatException(date + ": malformed date");
+        }
+        if (packed == UNPACKED){
+            this.unpacked = parts(date);
+            this.packed = pack(this.unpacked[0], this.unpacked[1], this.unpacked[2]);
+        }
+        else {
+            this.packed = (int) packed;
+            this.unpacked = null;
+        }
     }
 
     /**
@@ -45,9 +70,240 @@ public class Date implements Comparable<Date>{
      * @param year the year of the date
      */
     public Date(int month, int day, int year){
-        this.month = month;
-        this.day = day;
-        this.year = year;
+        this.packed = pack(month, day, year);
+        this.unpacked = fits(month, day, year) ? null : new int[] {month, day, year};
+    }
+
+    /**
+     * Creates a date object from a packed date
+     * @param packed the packed date
+     */
+    private Date(int packed){
+        this.packed = packed;
+        this.unpacked = null;
+    }
+
+    /**
+     * Returns a new date, not interned, from a packed date
+     * @param packed the packed date
+     * @return the date
+     */
+    private static Date fromPacked(int packed){
+        return new Date(packed);
+    }
+
+    /**
+     * Returns a date, shared with every other caller asking for the
+     * same date if it is valid and its year is interned
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return the date
+     */
+    public static Date of(int month, int day, int year){
+        if (!fits(month, day, year)){
+            return new Date(month, day, year);
+        }
+        return intern(pack(month, day, year));
+    }
+
+    /**
+     * Returns a date, shared with every other caller asking for the
+     * same date if it is valid and its year is interned
+     * Input Format: 1/02/2003
+     * @param date the date as a String
+     * @return the date
+     * @throws NumberFormatException if date is not in the input format
+     */
+    public static Date of(String date){
+        Date parsed = parse(date);
+        if (parsed == null){
+            throw new NumberFormatException(date + ": malformed date");
+        }
+        return parsed;
+    }
+
+    /**
+     * Reads a date, without throwing if it is malformed
+     * The date is shared with every other caller asking for the same
+     * date if it is valid and its year is interned, in which case
+     * nothing is allocated
+     * Input Format: 1/02/2003, see parsePacked
+     * @param text the date as text
+     * @return the date, null if text is not in the input format
+     */
+    public static Date parse(CharSequence text){
+        return parsed(parsePacked(text, 0, text.length()), text);
+    }
+
+    /**
+     * Returns the date parsePacked read from text
+     * @param packed what parsePacked returned for the text
+     * @param text the text holding only the date
+     * @return the date, interned if possible,
+     *         null if text is not in the input format
+     */
+    static Date parsed(long packed, CharSequence text){
+        if (packed == MALFORMED){
+            return null;
+        }
+        if (packed == UNPACKED){
+            return new Date(text.toString());
+        }
+        return intern((int) packed);
+    }
+
+    /**
+     * Splits a date already checked by parsePacked into its parts
+     * @param date the date as text
+     * @return {month, day, year}
+     */
+    private static int[] parts(String date){
+        String[] parts = date.split("/");
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+    }
+
+    /**
+     * Reads a packed date straight from text, without creating any objects
+     * Input Format: month/day/year, e.g. 1/02/2003
+     *  - each part is 1 to 9 digits, optionally starting with + or -
+     *  - nothing else may come before, between or after the parts
+     * @param text the text holding the date
+     * @param start index of the first character of the date
+     * @param end index after the last character of the date
+     * @return the packed date (see pack()), MALFORMED if the text is not in the input format,
+     *         UNPACKED if the date doesn't fit in a packed date
+     */
+    static long parsePacked(CharSequence text, int start, int end){
+        int month = 0;
+        int day = 0;
+        int part = 0;
+        int value = 0;
+        int digits = 0;
+        boolean negative = false;
+        for (int i = start; i <= end; i++){
+            char c = i < end ? text.charAt(i) : '/';
+            if (c >= '0' && c <= '9' && digits < MAX_DIGITS){
+                value = value * 10 + (c - '0');
+                digits++;
+            }
+            else if ((c == '+' || c == '-') && digits == 0 && !negative && i + 1 < end
+                    && (i == start || text.charAt(i - 1) == '/')){
+                negative = c == '-';
+            }
+            else if (c == '/' && digits > 0 && part < 3){
+                if (negative){
+                    value = -value;
+                }
+                if (part == 0){
+                    month = value;
+                }
+                else if (part == 1){
+                    day = value;
+                }
+                else if (i == end){
+                    return fits(month, day, value) ? pack(month, day, value) : UNPACKED;
+                }
+                part++;
+                value = 0;
+                digits = 0;
+                negative = false;
+            }
+            else {
+                return MALFORMED;
+            }
+        }
+        return MALFORMED;
+    }
+
+
+    /**
+     * Returns the interned date of a packed date
+     * The first date interned for a day is the one shared from then on.
+     * Only creates a Date if the day is not interned yet, or can't be
+     * @param packed the packed date
+     * @return the interned date, or a new date if it can't be interned
+     */
+    static Date intern(int packed){
+        int slot = internSlot(packed);
+        if (slot == -1){
+            return fromPacked(packed);
+        }
+        Date interned = INTERNED[slot];
+        if (interned == null){                       //Races only intern equal dates, the field is final
+            interned = fromPacked(packed);
+            INTERNED[slot] = interned;
+        }
+        return interned;
+    }
+
+    /**
+     * Checks if this date is the one shared by the static factories
+     * @return true if this is the interned date for its day, false otherwise
+     */
+    boolean isInterned(){
+        int slot = internSlot(this.packed);
+        return slot != -1 && INTERNED[slot] == this;
+    }
+
+    /**
+     * Returns where a date is interned
+     * @param packed the packed date
+     * @return index of the date in INTERNED,
+     *         -1 if the date is invalid or its year is not interned
+     */
+    private static int internSlot(int packed){
+        int year = packed >> 16;
+        if (year < Constant.INTERN_FIRST_YEAR.getValue() || year > Constant.INTERN_LAST_YEAR.getValue()
+                || !isValid(packed)){
+            return -1;
+        }
+        return ((year - Constant.INTERN_FIRST_YEAR.getValue()) * MONTHS + ((packed >>> 8) & 0xFF) - 1) * DAYS
+                + (packed & 0xFF) - 1;
+    }
+
+    /**
+     * Checks if a month, day and year fit in a packed date unchanged
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return true if month and day are 0 to 255 and year fits in 16 bits,
+     *         false otherwise
+     */
+    private static boolean fits(int month, int day, int year){
+        return month >= 0 && month <= 0xFF && day >= 0 && day <= 0xFF
+                && year >= Short.MIN_VALUE && year <= Short.MAX_VALUE;
+    }
+
+    /**
+     * Packs a month, day and year into one int
+     * Parts that don't fit are clamped, see fits
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return the packed date
+     */
+    private static int pack(int month, int day, int year){
+        if (month < 0 || month > 0xFF){
+            month = 0;
+        }
+        if (day < 0 || day > 0xFF){
+            day = 0;
+        }
+        year = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, year));
+        return (year << 16) | (month << 8) | day;
+    }
+
+    /**
+     * Builds the last day of every month, indexed by month number
+     * @return last day of each month, 0 for index 0
+     */
+    private static int[] lastDays(){
+        int[] lastDays = new int[Month.values().length + 1];
+        for (Month month : Month.values()){
+            lastDays[month.getNumberMonth()] = month.getLastDayInMonth();
+        }
+        return lastDays;
     }
 
     /**
@@ -60,25 +316,59 @@ public class Date implements Comparable<Date>{
      */
     @Override
     public int compareTo(Date date){
-        if (this.year < date.getYear()){
-            return -1;
-        }
-        if (this.year > date.getYear()){
-            return 1;
-        }
-        if (this.month < date.getMonth()){
-            return -1;
+        if (this.unpacked == null && date.unpacked == null){
+            return Integer.compare(this.packed, date.packed);
         }
-        if (this.month > date.getMonth()){
-            return 1;
+        if (getYear() != date.getYear()){
+            return Integer.compare(getYear(), date.getYear());
         }
-        if (this.day < date.getDay()){
-            return -1;
+        if (getMonth() != date.getMonth()){
+            return Integer.compare(getMonth(), date.getMonth());
         }
-        if (this.day > date.getDay()){
-            return 1;
+        return Integer.compare(getDay(), date.getDay());
+    }
+
+    /**
+     * Determine equality between this date and another
+     * Two dates are equal if they have the same month, day and year
+     * @param obj the date to check equality with
+     * @return true if dates are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj){
+        if (obj instanceof Date){
+            Date date = (Date) obj;
+            return this.packed == date.packed && (this.unpacked == null && date.unpacked == null || compareTo(date) == 0);
         }
-        return 0;
+        return false;
+    }
+
+    /**
+     * Returns hash code of this date
+     * @return hash code of this date
+     */
+    @Override
+    public int hashCode(){
+        return this.packed;
+    }
+
+    /**
+     * Returns this date packed into an int ordered the same way as compareTo
+     * Format: year in the high 16 bits, then month, then day in the low 8 bits
+     * For a date that doesn't fit, its parts are clamped, see fits
+     * @return the packed date
+     */
+    int pack(){
+        return this.packed;
+    }
+
+    /**
+     * Returns the date of a packed date
+     * @param packed the packed date
+     * @return the date, interned if possible
+     */
+    static Date unpack(int packed){
+        return of((packed >>> 8) & 0xFF, packed & 0xFF, packed >> 16);
     }
 
     /**
@@ -87,46 +377,70 @@ public class Date implements Comparable<Date>{
      */
     @Override
     public String toString(){
-        return this.month + "/" + this.day + "/" + this.year;
+        return getMonth() + "/" + getDay() + "/" + getYear();
     }
 
     /**
      * Checks if date exists in the calendar
      * Based on the month, if the day is between the first and the last
      * day of the month, the date exists in the calendar.
+     * Looks the last day up by month number, without searching Month.
      * This method assumes February has 28 days then checks
      * if the date is leap day on a leap year
      * @return true if date exists in the calendar, false otherwise
      */
     public boolean isValid(){
-        Month month = Month.intToMonth(this.month);
-        if (month == null){
+        if (this.unpacked != null){
+            return isValid(getMonth(), getDay(), getYear());
+        }
+        return isValid(this.packed);
+    }
+
+    /**
+     * Checks if a packed date exists in the calendar, see isValid()
+     * @param packed the packed date
+     * @return true if date exists in the calendar, false otherwise
+     */
+    private static boolean isValid(int packed){
+        return isValid((packed >>> 8) & 0xFF, packed & 0xFF, packed >> 16);
+    }
+
+    /**
+     * Checks if a month, day and year exist in the calendar, see isValid()
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return true if date exists in the calendar, false otherwise
+     */
+    private static boolean isValid(int month, int day, int year){
+        if (month < 1 || month >= LAST_DAYS.length){
             return false;
         }
-        if (this.day >= Constant.FIRST_DAY_OF_MONTH.getValue()
-                && this.day <= month.getLastDayInMonth()){
+        if (day >= Constant.FIRST_DAY_OF_MONTH.getValue()
+                && day <= LAST_DAYS[month]){
             return true;
         }
-        if (month == Month.FEBRUARY
-                && this.day == Constant.LEAP_DAY.getValue()
-                && isLeapYear()){
+        if (month == Month.FEBRUARY.getNumberMonth()
+                && day == Constant.LEAP_DAY.getValue()
+                && isLeapYear(year)){
             return true;
         }
         return false;
     }
 
     /**
-     * Checks if this year is a leap year
+     * Checks if a year is a leap year
      * If the year is not evenly divisible by 4, it's not a leap year
      * If the year is evenly divisible by 4, but not by 100, it's a leap year
      * If the year is evenly divisible by 100, but not by 400, it's not a leap year
      * If the year is evenly divisible by 400, it's a leap year
-     * @return true if this year is a leap year, false otherwise
+     * @param year the year to check
+     * @return true if the year is a leap year, false otherwise
      */
-    private boolean isLeapYear(){
-        if (this.year % Constant.QUADRENNIAL.getValue() == 0){
-            if (this.year % Constant.CENTENNIAL.getValue() == 0){
-                if (this.year % Constant.QUARTERCENTENNIAL.getValue() == 0){
+    private static boolean isLeapYear(int year){
+        if (year % Constant.QUADRENNIAL.getValue() == 0){
+            if (year % Constant.CENTENNIAL.getValue() == 0){
+                if (year % Constant.QUARTERCENTENNIAL.getValue() == 0){
                     return true;
                 }
                 return false;
@@ -141,7 +455,10 @@ public class Date implements Comparable<Date>{
      * @return date's year
      */
     public int getYear(){
-        return this.year;
+        if (this.unpacked != null){
+            return this.unpacked[2];
+        }
+        return this.packed >> 16;
     }
 
     /**
@@ -149,7 +466,10 @@ public class Date implements Comparable<Date>{
      * @return date's month
      */
     public int getMonth(){
-        return this.month;
+        if (this.unpacked != null){
+            return this.unpacked[0];
+        }
+        return (this.packed >>> 8) & 0xFF;
     }
 
     /**
@@ -157,6 +477,9 @@ public class Date implements Comparable<Date>{
      * @return date's day
      */
     public int getDay(){
-        return this.day;
+        if (this.unpacked != null){
+            return this.unpacked[1];
+        }
+        return this.packed & 0xFF;
     }
 }
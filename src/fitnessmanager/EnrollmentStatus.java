@@ -0,0 +1,13 @@
+package fitnessmanager;
+
+/**
+ * EnrollmentStatus Enum Class holds the outcomes of checking a member into a fitness class
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public enum EnrollmentStatus {
+    CHECKED_IN,                 //Member took a spot in the class
+    ALREADY_CHECKED_IN,         //Member already had a spot in the class
+    WAITLISTED,                 //Class was full, member was put on its waitlist
+    ALREADY_WAITLISTED,         //Class was full, member was already on its waitlist
+    TIME_CONFLICT               //Member is in another class at the same time
+}
@@ -0,0 +1,128 @@
+package fitnessmanager;
+
+import java.util.Arrays;
+
+/**
+ * EnumCodec looks up enum constants by name, not case-sensitive
+ * Stores the following data:
+ *  - Open addressing table of the constants, keyed by a hash
+ *      of their case folded name, at most half full
+ *  - Case folded hash of each constant in the table
+ *  - Which name lengths (under 64) the constants have
+ * Built once per enum. Text of a length no constant has is turned away
+ * without reading it, otherwise a lookup hashes the text from two of its
+ * characters and compares it to the constant in its slot (usually the
+ * first one probed), without creating any objects
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class EnumCodec<E extends Enum<E>> {
+    private final E[] table;
+    private final int[] hashes;
+    private final long lengths;             //Bit n set if a constant's name has n characters, bit 63 for 63 or more
+
+    /**
+     * Creates a codec for the constants of an enum
+     * @param constants every constant of the enum (its values())
+     */
+    EnumCodec(E[] constants){
+        int length = 1;
+        while (length < constants.length * 2){
+            length = length * 2;
+        }
+        this.table = Arrays.copyOf(constants, length);      //Creates an array of the enum's type,
+        Arrays.fill(this.table, null);                      //then empties it
+        this.hashes = new int[length];
+        long lengths = 0;
+        for (E constant : constants){
+            lengths |= lengthBit(constant.name().length());
+            int hash = hash(constant.name());
+            int slot = hash & (length - 1);
+            while (this.table[slot] != null){
+                slot = (slot + 1) & (length - 1);
+            }
+            this.table[slot] = constant;
+            this.hashes[slot] = hash;
+        }
+        this.lengths = lengths;
+    }
+
+    /**
+     * Returns the bit of a name length in the lengths mask
+     * @param length the name length
+     * @return the bit for the length
+     */
+    private static long lengthBit(int length){
+        return 1L << Math.min(length, Long.SIZE - 1);
+    }
+
+    /**
+     * Folds a character the way equalsIgnoreCase compares it
+     * @param c the character to fold
+     * @return the folded character
+     */
+    private static char fold(char c){
+        if (c < 0x80){                                      //ASCII: only A-Z change
+            if (c >= 'A' && c <= 'Z'){
+                return (char) (c + ('a' - 'A'));
+            }
+            return c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Hashes text by its length and its first and last case folded characters
+     * Enum names are short and mostly differ in those, so this spreads
+     * them over the table while reading only two characters; the
+     * full name is compared once a slot is found
+     * @param text the text to hash
+     * @return the hash, equal for text differing only in case
+     */
+    private static int hash(CharSequence text){
+        int length = text.length();
+        if (length == 0){
+            return 0;
+        }
+        int hash = (fold(text.charAt(0)) * 31 + fold(text.charAt(length - 1))) * 31 + length;
+        return hash ^ (hash >>> 7);
+    }
+
+    /**
+     * Checks if text is a constant's name, not case-sensitive
+     * @param text the text to check
+     * @param name the constant's name
+     * @return true if they are equal ignoring case, false otherwise
+     */
+    private static boolean matches(CharSequence text, String name){
+        if (text.length() != name.length()){
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++){
+            char c = text.charAt(i);
+            if (c != name.charAt(i) && fold(c) != fold(name.charAt(i))){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the constant with a name, not case-sensitive
+     * @param text the name of the constant
+     * @return the constant named by the text,
+     *         null if there is none
+     */
+    E lookup(CharSequence text){
+        if ((this.lengths & lengthBit(text.length())) == 0){
+            return null;
+        }
+        int hash = hash(text);
+        for (int slot = hash & (this.table.length - 1); this.table[slot] != null;
+             slot = (slot + 1) & (this.table.length - 1)){
+            if (this.hashes[slot] == hash && matches(text, this.table[slot].name())){
+                return this.table[slot];
+            }
+        }
+        return null;
+    }
+}
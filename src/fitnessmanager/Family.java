@@ -29,6 +29,20 @@ public class Family extends Member{
         this.guestPasses = Constant.FAMILY_MAX_PASS_NUM.getValue();
     }
 
+    /**
+     * Creates a family member object from already parsed fields
+     * Starts with 1 guest pass (max per family membership)
+     * @param fname first name of the member
+     * @param lname last name of the member
+     * @param dob birthday of the member
+     * @param expire expiration date of the member's gym membership
+     * @param location the gym the member belongs to
+     */
+    public Family(String fname, String lname, Date dob, Date expire, Location location){
+        super(fname, lname, dob, expire, location);
+        this.guestPasses = Constant.FAMILY_MAX_PASS_NUM.getValue();
+    }
+
     /**
      * Creates a family member object
      * Starts with 1 guest pass (max per family membership)
@@ -83,6 +97,23 @@ public class Family extends Member{
         return false;
     }
 
+    /**
+     * Getter method for the number of guest passes left
+     * @return number of guest passes left
+     */
+    int getGuestPasses() {
+        return this.guestPasses;
+    }
+
+    /**
+     * Setter method for the number of guest passes left, e.g. when
+     * restoring a member from a snapshot
+     * @param guestPasses number of guest passes left
+     */
+    void setGuestPasses(int guestPasses) {
+        this.guestPasses = guestPasses;
+    }
+
     /**
      * Returns String representation of this member
      * Format ex: April March, DOB: 3/31/1990, Membership expires 6/30/2023,
@@ -92,7 +123,7 @@ public class Family extends Member{
      */
     @Override
     public String toString(){
-        if (super.expire.compareTo(new Date()) < 0){                  //Check if membership expiration date has passed
+        if (super.expire.compareTo(GymClock.get().today()) < 0){     //Check if membership expiration date has passed
             return super.fname + " " + super.lname + ", DOB: " + super.dob.toString()
                     +  ", Membership expired " + super.expire.toString()
                     +  ", Location: " + super.location.toString() + ", (Family) Guest-pass remaining: "
@@ -1,6 +1,18 @@
 package fitnessmanager;
 
+import java.time.DayOfWeek;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
 
 /**
  * FitnessClass Class is a blueprint for FitnessClass objects
@@ -8,20 +20,105 @@ import java.util.ArrayList;
  * pertaining to class:
  *  - Type of Class
  *  - Instructor Name
- *  - Time it's held
+ *  - Time it's held: the start time, how long it lasts, and the
+ *      days of the week it's held on (every day unless set)
  *  - Location
- * Contains separate arraylists for storing members and guests
- * Includes methods to check in and drop classes
+ * Contains separate rosters for storing members and guests, both hash
+ * maps, so checking in, dropping and finding a member or guest take
+ * O(1) instead of searching the roster.
+ * The guest roster holds each member who brought guests once, with
+ * their guests. Every guest is also in a linked list in check-in order,
+ * which the guest list is printed in: a member appears once per guest,
+ * and dropping a guest takes out that member's earliest one
+ * A class can hold a limited number of members and guests (its capacity).
+ * Members checking into a full class are put on its waitlist, ordered by
+ * membership tier (premium, then family, then standard) and then by when
+ * they asked, and the first one is checked in whenever a spot frees up
+ * Includes methods to check in and drop classes. Checking in and dropping
+ * are safe to do from several threads; the roster views are not meant
+ * to be read while other threads change the class
  * @author Arya Shetty, John Greaney-Cheng
  */
 public class FitnessClass{
+    private static final int EVERY_DAY = (1 << Constant.DAYS_PER_WEEK.getValue()) - 1;     //Bits of all seven days
+    private static final Time DEFAULT_TIME = Time.MORNING;                                 //Time of a class created without one
+
     private ClassName className;
     private Instructor instructor;
-    private Time time;
+    private Time time;                                          //Null if the class starts at a time that isn't a Time
     private Location location;
+    private int startMinute;                                    //Minutes after midnight the class starts, -1 if unknown
+    private int minutes;                                        //How long each session lasts
+    private int days;                                           //Bit d set if held on the day with DayOfWeek ordinal d
+    private int[] sessions;                                     //Start and end of each session, in minutes after Monday midnight
+
+    private LinkedHashMap<Member, Member> memberList;            //Member -> stored member, in check-in order
+    private HashMap<Member, Guests> guestList;                   //Member -> their guests
+    private Guest firstGuest;                                   //Guests of every member, in check-in order
+    private Guest lastGuest;
+    private int numGuests;                                      //Guests checked in, over all members
+    private int capacity;                                       //Most members and guests the class can hold
+    private TreeSet<Waiting> waitlist;                          //Members waiting for a spot, next one first
+    private HashMap<Member, Waiting> waiting;                   //Member -> their place on the waitlist
+    private long nextRequest;                                   //Order of the next member to join the waitlist
+
+    /**
+     * Waiting holds a member's place on the waitlist
+     */
+    private static class Waiting {
+        private static final Comparator<Waiting> ORDER = Comparator.<Waiting>comparingInt(waiting -> waiting.tier)
+                .thenComparingLong(waiting -> waiting.request);
 
-    private ArrayList<Member> memberList;
-    private ArrayList<Member> guestList;
+        private final Member member;
+        private final int tier;                                 //0 for premium, 1 for family, 2 for standard
+        private final long request;                             //When the member asked, earlier is lower
+
+        /**
+         * Creates a member's place on the waitlist
+         * @param member the member waiting
+         * @param request when the member asked for a spot
+         */
+        Waiting(Member member, long request) {
+            this.member = member;
+            this.tier = member instanceof Premium ? 0 : member instanceof Family ? 1 : 2;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Guests holds the guests one member has checked into this class
+     */
+    private static class Guests {
+        private final Member member;                            //The member who brought the guests, as stored
+        private final ArrayDeque<Guest> guests;                 //Their guests, earliest first
+
+        /**
+         * Creates an empty list of a member's guests
+         * @param member the member who brought the guests
+         */
+        Guests(Member member) {
+            this.member = member;
+            this.guests = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Guest is one guest checked into this class, linked to the guests
+     * checked in before and after it
+     */
+    private static class Guest {
+        private final Member member;                            //The member who brought the guest, as stored
+        private Guest previous;
+        private Guest next;
+
+        /**
+         * Creates a guest not yet linked to any other
+         * @param member the member who brought the guest
+         */
+        Guest(Member member) {
+            this.member = member;
+        }
+    }
 
     /**
      * Creates a FitnessClass instance
@@ -31,123 +128,430 @@ public class FitnessClass{
      * @param location the location of the class
      */
     public FitnessClass(String className, String instructor, String time, String location){
-        this.memberList = new ArrayList<>();
-        this.guestList = new ArrayList<>();
+        this.memberList = new LinkedHashMap<>();
+        this.guestList = new HashMap<>();
+        this.capacity = Integer.MAX_VALUE;
+        this.waitlist = new TreeSet<>(Waiting.ORDER);
+        this.waiting = new HashMap<>();
         this.className = ClassName.stringToClassName(className);
         this.instructor = Instructor.stringToInstructor(instructor);
         this.time = Time.stringToTime(time);
         this.location = Location.stringToLocation(location);
+        this.startMinute = this.time != null
+                ? this.time.getHour() * Constant.MINUTES_PER_HOUR.getValue() + this.time.getMinute()
+                : parseStartMinute(time);
+        setWeeklySchedule(EVERY_DAY, Constant.DEFAULT_CLASS_MINUTES.getValue());
     }
 
     /**
-     * Creates a FitnessClass instance
+     * Creates a FitnessClass instance held at the default time, DEFAULT_TIME
      * @param className type of class (e.g. Pilates)
      * @param instructor name of the class' instructor
      * @param location the location of the class
      */
     public FitnessClass(String className, String instructor, String location){
-        this.memberList = new ArrayList<>();
-        this.guestList = new ArrayList<>();
-        this.className = ClassName.stringToClassName(className);
-        this.instructor = Instructor.stringToInstructor(instructor);
-        this.location = Location.stringToLocation(location);
+        this(className, instructor, DEFAULT_TIME.name(), location);
+    }
+
+    /**
+     * Reads a start time written as hours and minutes
+     * Format: H:MM or HH:MM, on a 24 hour clock (ex: 7:15 or 17:45)
+     * @param text the start time
+     * @return minutes after midnight the time is at,
+     *         -1 if the text isn't a time
+     */
+    public static int parseStartMinute(String text){
+        int colon = text.indexOf(':');
+        if (colon < 1 || colon > 2 || text.length() != colon + 3){
+            return -1;
+        }
+        int hour = 0;
+        int minute = 0;
+        for (int i = 0; i < text.length(); i++){
+            char c = text.charAt(i);
+            if (i == colon){
+                continue;
+            }
+            if (c < '0' || c > '9'){
+                return -1;
+            }
+            if (i < colon){
+                hour = hour * 10 + (c - '0');
+            }
+            else {
+                minute = minute * 10 + (c - '0');
+            }
+        }
+        if (hour >= Constant.HOURS_PER_DAY.getValue() || minute >= Constant.MINUTES_PER_HOUR.getValue()){
+            return -1;
+        }
+        return hour * Constant.MINUTES_PER_HOUR.getValue() + minute;
+    }
+
+    /**
+     * Reads the days of the week a class is held on
+     * Format: DAILY, or days separated by commas, each at least the
+     * first three letters of its name, not case-sensitive (ex: MON,WED,FRI)
+     * @param text the days
+     * @return the days as bits, bit d set for the day with DayOfWeek ordinal d,
+     *         0 if the text isn't a list of days
+     */
+    public static int parseDays(String text){
+        if (text.equalsIgnoreCase("DAILY")){
+            return EVERY_DAY;
+        }
+        int days = 0;
+        for (String day : text.split(",")){
+            int bit = 0;
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()){
+                if (day.length() >= Constant.DAY_ABBREVIATION_LENGTH.getValue()
+                        && dayOfWeek.name().regionMatches(true, 0, day, 0, day.length())){
+                    bit = 1 << dayOfWeek.ordinal();
+                }
+            }
+            if (bit == 0){
+                return 0;
+            }
+            days |= bit;
+        }
+        return days;
+    }
+
+    /**
+     * Sets which days of the week this class is held on and how long it lasts
+     * Works out the sessions of the class again. A session running past
+     * Sunday midnight is split in two, the rest going at the start of the week
+     * @param days the days as bits, bit d set for the day with DayOfWeek ordinal d
+     * @param minutes how long each session lasts
+     */
+    public void setWeeklySchedule(int days, int minutes){
+        this.days = days;
+        this.minutes = minutes;
+        if (this.startMinute < 0){
+            this.sessions = new int[0];
+            return;
+        }
+        int week = Constant.DAYS_PER_WEEK.getValue() * Constant.MINUTES_PER_DAY.getValue();
+        int[] sessions = new int[Integer.bitCount(days) * 4];
+        int count = 0;
+        for (int day = 0; day < Constant.DAYS_PER_WEEK.getValue(); day++){
+            if ((days & (1 << day)) == 0){
+                continue;
+            }
+            int start = day * Constant.MINUTES_PER_DAY.getValue() + this.startMinute;
+            int end = start + minutes;
+            sessions[count++] = start;
+            sessions[count++] = Math.min(end, week);
+            if (end > week){                                    //Runs into Monday
+                sessions[count++] = 0;
+                sessions[count++] = end - week;
+            }
+        }
+        this.sessions = Arrays.copyOf(sessions, count);
+    }
+
+    /**
+     * Returns the sessions of this class in a week
+     * @return start and end of each session, in minutes after Monday
+     *         midnight, as pairs: start, end, start, end...
+     */
+    int[] getSessions(){
+        return this.sessions;
+    }
+
+    /**
+     * Returns the days of the week this class is held on
+     * @return the days as bits, bit d set for the day with DayOfWeek ordinal d
+     */
+    int getDays(){
+        return this.days;
+    }
+
+    /**
+     * Returns how long each session of this class lasts
+     * @return length of a session in minutes
+     */
+    int getMinutes(){
+        return this.minutes;
+    }
+
+    /**
+     * Returns the start time of this class
+     * Format ex: 9:30, 14:00, 7:05
+     * @return the start time as hours and minutes,
+     *         null if the class's time couldn't be read
+     */
+    public String getStartTime(){
+        if (this.startMinute < 0){
+            return null;
+        }
+        int minute = this.startMinute % Constant.MINUTES_PER_HOUR.getValue();
+        return (this.startMinute / Constant.MINUTES_PER_HOUR.getValue()) + ":" + (minute < 10 ? "0" : "") + minute;
+    }
+
+    /**
+     * Returns the name of the time of this class
+     * @return the Time's name if the class starts at one (ex: MORNING),
+     *         otherwise the start time (ex: 7:15)
+     */
+    public String getTimeName(){
+        if (this.time != null){
+            return this.time.toString();
+        }
+        return getStartTime();
     }
 
     /**
      * Returns String representation of this fitness class
      * Format ex: PILATES - JENNIFER, 9:30, BRIDGEWATER
+     * The days and length are added if the class isn't held every day
+     * for the usual length, ex: PILATES - JENNIFER, 7:15, BRIDGEWATER, MON/WED, 45 minutes
      * @return String representation of this fitness class
      */
     @Override
     public String toString(){
-        if (time.getMinute() == 0){
-            return (className.name() + " - " + instructor.name() + ", " + time.getHour()
-                    + ":" + "00, " + location.name());
+        String schedule = "";
+        if (this.days != EVERY_DAY){
+            StringBuilder days = new StringBuilder();
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()){
+                if ((this.days & (1 << dayOfWeek.ordinal())) != 0){
+                    days.append(days.length() == 0 ? ", " : "/")
+                            .append(dayOfWeek.name(), 0, Constant.DAY_ABBREVIATION_LENGTH.getValue());
+                }
+            }
+            schedule = days.toString();
         }
-        else {
-            return (className.name() + " - " + instructor.name() + ", " + time.getHour()
-                    + ":" + time.getMinute() + ", " + location.name());
+        if (this.minutes != Constant.DEFAULT_CLASS_MINUTES.getValue()){
+            schedule = schedule + ", " + this.minutes + " minutes";
         }
+        return className.name() + " - " + instructor.name() + ", " + getStartTime() + ", " + location.name() + schedule;
     }
 
     /**
      * Checks member into this class
      * First verifies that member isn't already checked into this class
+     * If the class is full, the member is put on the waitlist instead
      * @param member member to check into this cla
      * @return true if member was checked into this class
      *         false otherwise
      */
     public boolean checkIn(Member member) {
-        if (this.memberList.contains(member)){
-            return false;
+        return enroll(member) == EnrollmentStatus.CHECKED_IN;
+    }
+
+    /**
+     * Checks member into this class, or puts them on the waitlist if
+     * the class is full
+     * @param member member to check into this class
+     * @return CHECKED_IN if member was checked into this class,
+     *         WAITLISTED if member was put on the waitlist,
+     *         ALREADY_CHECKED_IN or ALREADY_WAITLISTED if member was
+     *              already checked in or on the waitlist
+     */
+    public synchronized EnrollmentStatus enroll(Member member) {
+        if (this.memberList.containsKey(member)){
+            return EnrollmentStatus.ALREADY_CHECKED_IN;
         }
-        this.memberList.add(member);
-        return true;
+        if (this.waiting.containsKey(member)){
+            return EnrollmentStatus.ALREADY_WAITLISTED;
+        }
+        if (!isFull()){
+            this.memberList.put(member, member);
+            return EnrollmentStatus.CHECKED_IN;
+        }
+        Waiting place = new Waiting(member, this.nextRequest++);
+        this.waitlist.add(place);
+        this.waiting.put(member, place);
+        return EnrollmentStatus.WAITLISTED;
     }
 
     /**
-     * Drops member from this class
+     * Drops member from this class, or takes them off the waitlist
+     * A spot freed up goes to the next member on the waitlist
      * @param member member to drop from this class
-     * @return true if member was dropped from this class
+     * @return true if member was dropped from this class or the waitlist
      *         false otherwise
      */
-    public boolean checkOut(Member member){
-        return this.memberList.remove(member);
+    public synchronized boolean checkOut(Member member){
+        Waiting place = this.waiting.remove(member);
+        if (place != null){
+            this.waitlist.remove(place);
+            return true;
+        }
+        if (this.memberList.remove(member) == null){
+            return false;
+        }
+        promote();
+        return true;
     }
 
     /**
      * Checks guest into this class
+     * Guests aren't put on the waitlist: a full class turns them away
      * @param member member with guest to check into this class
+     * @return true if guest was checked into this class
+     *         false if the class is full
      */
-    public void checkInGuest(Member member){
-        this.guestList.add(member);
+    public synchronized boolean checkInGuest(Member member){
+        if (isFull()){
+            return false;
+        }
+        Guests guests = this.guestList.computeIfAbsent(member, Guests::new);
+        Guest guest = new Guest(guests.member);
+        guest.previous = this.lastGuest;
+        if (this.lastGuest == null){
+            this.firstGuest = guest;
+        }
+        else {
+            this.lastGuest.next = guest;
+        }
+        this.lastGuest = guest;
+        guests.guests.addLast(guest);
+        this.numGuests++;
+        return true;
     }
 
     /**
      * Drops guest from this class
+     * If the member checked in more than one guest, drops one of them
+     * A spot freed up goes to the next member on the waitlist
      * @param member member with guest to drop from this class
      * @return true if guest was dropped from this class
      *         false otherwise
      */
-    public boolean checkOutGuest(Member member){
-        return this.guestList.remove(member);
+    public synchronized boolean checkOutGuest(Member member){
+        Guests guests = this.guestList.get(member);
+        if (guests == null){
+            return false;
+        }
+        unlink(guests.guests.pollFirst());
+        if (guests.guests.isEmpty()){
+            this.guestList.remove(member);
+        }
+        promote();
+        return true;
+    }
+
+    /**
+     * Takes a guest out of the check-in order
+     * @param guest the guest to take out
+     */
+    private void unlink(Guest guest){
+        if (guest.previous == null){
+            this.firstGuest = guest.next;
+        }
+        else {
+            guest.previous.next = guest.next;
+        }
+        if (guest.next == null){
+            this.lastGuest = guest.previous;
+        }
+        else {
+            guest.next.previous = guest.previous;
+        }
+        this.numGuests--;
+    }
+
+    /**
+     * Checks if every spot in this class is taken
+     * @return true if this class is full, false otherwise
+     */
+    private boolean isFull(){
+        return this.memberList.size() + this.numGuests >= this.capacity;
+    }
+
+    /**
+     * Checks in members from the front of the waitlist while there are free spots
+     */
+    private void promote(){
+        while (!isFull() && !this.waitlist.isEmpty()){
+            Waiting next = this.waitlist.pollFirst();
+            this.waiting.remove(next.member);
+            this.memberList.put(next.member, next.member);
+        }
     }
 
+    /**
+     * Drops a member, and the guests they checked in, from this class
+     * and its waitlist
+     * Every dropped guest's pass is returned to the member who used it,
+     * and freed spots go to the next members on the waitlist
+     * @param member the member to drop from this class
+     * @return number of members and guests dropped from this class
+     */
+    public synchronized int dropMember(Member member){
+        int dropped = 0;
+        if (this.memberList.remove(member) != null){
+            dropped++;
+        }
+        Guests guests = this.guestList.remove(member);
+        if (guests != null){
+            for (Guest guest : guests.guests){
+                if (guests.member instanceof Premium){
+                    ((Premium) guests.member).returnGuestPass();
+                }
+                else if (guests.member instanceof Family){
+                    ((Family) guests.member).returnGuestPass();
+                }
+                unlink(guest);
+                dropped++;
+            }
+        }
+        Waiting place = this.waiting.remove(member);
+        if (place != null){
+            this.waitlist.remove(place);
+        }
+        promote();
+        return dropped;
+    }
 
     /**
      * Tries to find member in member list equal to input parameter
-     * Goes through list to see if any stored member is
-     * equal to parameter member
+     * Looks the member up in the roster's hash map
      * @param memberToFind the member to find in member list
      * @return the member stored in the list that's equal to
      *              the input parameter
      *         null if there is no such member in the database
      */
-    public Member find(Member memberToFind) {
-        for (Member memberCheckedIn: memberList){
-            if (memberToFind.equals(memberCheckedIn)){
-                return memberCheckedIn;
-            }
-        }
-        return null;
+    public synchronized Member find(Member memberToFind) {
+        return this.memberList.get(memberToFind);
     }
 
     /**
      * Tries to find member in guest list equal to input parameter
-     * Goes through list to see if any stored member that checked in
-     * a guest is equal to parameter member
+     * Looks up the guests checked in by the member
      * @param memberToFind the member to find in guest list
      * @return the member stored in the list that's equal to
      *              the input parameter
      *         null if there is no such member in the database
      */
-    public Member findGuest(Member memberToFind) {
-        for (Member memberWithGuestCheckedIn: guestList){
-            if (memberToFind.equals(memberWithGuestCheckedIn)){
-                return memberWithGuestCheckedIn;
-            }
+    public synchronized Member findGuest(Member memberToFind) {
+        Guests guests = this.guestList.get(memberToFind);
+        if (guests == null){
+            return null;
         }
-        return null;
+        return guests.member;
+    }
+
+    /**
+     * Checks if a member is on the waitlist of this class
+     * @param member the member to check
+     * @return true if the member is waiting for a spot, false otherwise
+     */
+    public synchronized boolean isWaitlisted(Member member){
+        return this.waiting.containsKey(member);
+    }
+
+    /**
+     * Returns the members on the waitlist of this class
+     * @return the waiting members, in the order they'll get a spot
+     */
+    public synchronized ArrayList<Member> getWaitlist(){
+        ArrayList<Member> members = new ArrayList<>(this.waitlist.size());
+        for (Waiting place : this.waitlist){
+            members.add(place.member);
+        }
+        return members;
     }
 
     /**
@@ -188,7 +592,8 @@ public class FitnessClass{
 
     /**
      * Getter method for class's time
-     * @return class's time
+     * @return class's time,
+     *         null if the class doesn't start at one of the Times
      */
     public Time getTime(){
         return this.time;
@@ -206,7 +611,7 @@ public class FitnessClass{
      * Checks if member list is empty
      * @return true if guest list is empty, false otherwise
      */
-    public boolean memberListIsEmpty(){
+    public synchronized boolean memberListIsEmpty(){
         return this.memberList.isEmpty();
     }
 
@@ -214,44 +619,89 @@ public class FitnessClass{
      * Checks if guest list is empty
      * @return true if guest list is empty, false otherwise
      */
-    public boolean guestListIsEmpty(){
-        return this.guestList.isEmpty();
+    public synchronized boolean guestListIsEmpty(){
+        return this.numGuests == 0;
     }
 
     /**
      * Getter method for member list size
      * @return member list size
      */
-    public int getMemberListSize() {
+    public synchronized int getMemberListSize() {
         return memberList.size();
     }
 
     /**
      * Getter method for guest list size
-     * @return guest list size
+     * Counted as guests are checked in and dropped
+     * @return number of guests checked into this class
      */
-    public int getGuestListSize() {
-        return guestList.size();
+    public synchronized int getGuestListSize() {
+        return numGuests;
     }
 
     /**
-     * Getter method for specific index of member list
-     * @param index index whose member in member list is to be returned
-     * @return member from member list corresponding to index
+     * Getter method for the member list, in check-in order
+     * @return read-only view of the members checked into this class
      */
-    public Member getIndexedMemberFromMemberList(int index){
-        return memberList.get(index);
+    public Collection<Member> getMemberList(){
+        return Collections.unmodifiableCollection(this.memberList.values());
     }
 
     /**
-     * Getter method for specific index of guest list
-     * @param index index whose member in guest list is to be returned
-     * @return member from guest list corresponding to index
+     * Getter method for the guest list
+     * A member appears once for each guest they checked in, in the order
+     * the guests checked in
+     * @return read-only view of the members whose guests are checked into this class
      */
-    public Member getIndexedMemberFromGuestList(int index){
-        return guestList.get(index);
-    }
-}
+    public Collection<Member> getGuestList(){
+        return new AbstractCollection<Member>() {
+            @Override
+            public Iterator<Member> iterator() {
+                return new Iterator<Member>() {
+                    private Guest guest = firstGuest;
+
+                    @Override
+                    public boolean hasNext() {
+                        return guest != null;
+                    }
+
+                    @Override
+                    public Member next() {
+                        if (guest == null){
+                            throw new NoSuchElementException();
+                        }
+                        Member member = guest.member;
+                        guest = guest.next;
+                        return member;
+                    }
+                };
+            }
 
+            @Override
+            public int size() {
+                return numGuests;
+            }
+        };
+    }
 
+    /**
+     * Getter method for the capacity of this class
+     * @return most members and guests this class can hold
+     */
+    public int getCapacity(){
+        return this.capacity;
+    }
 
+    /**
+     * Setter method for the capacity of this class
+     * If the class has more room than before, the freed spots go to
+     * the next members on the waitlist. Members and guests already
+     * checked in keep their spots if the class has less room
+     * @param capacity most members and guests this class can hold
+     */
+    public synchronized void setCapacity(int capacity){
+        this.capacity = capacity;
+        promote();
+    }
+}
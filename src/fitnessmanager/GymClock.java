@@ -0,0 +1,103 @@
+package fitnessmanager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * GymClock tells the gym what day it is
+ * Stores the following data:
+ *  - Clock the time is read from (the system clock, or a fixed clock in tests)
+ *  - Today's date and the date 18 years ago (the latest birthday
+ *      a member can have to join), worked out once a day
+ *  - Time the next day starts, when both dates are worked out again
+ * Asking for today only reads the clock's time, instead of creating a
+ * Calendar for each date like new Date() does.
+ * One clock is used by the whole program (see get and use), so that
+ * members printing themselves and GymManager agree on what day it is.
+ * Safe to use from several threads
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class GymClock {
+    private static volatile GymClock current = new GymClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day day;                   //Null until first asked for a date
+
+    /**
+     * Day holds the dates worked out for one day
+     */
+    private static class Day {
+        private final Date today;
+        private final Date eighteenYearsAgo;
+        private final long nextDayMillis;       //Clock time the next day starts at
+
+        /**
+         * Works out the dates of a day
+         * @param date the day
+         * @param clock clock whose time zone the day is in
+         */
+        Day(LocalDate date, Clock clock) {
+            this.today = Date.of(date.getMonthValue(), date.getDayOfMonth(), date.getYear());
+            this.eighteenYearsAgo = Date.of(date.getMonthValue(), date.getDayOfMonth(),
+                    date.getYear() - Constant.MINIMUM_AGE.getValue());
+            this.nextDayMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        }
+    }
+
+    /**
+     * Creates a gym clock
+     * @param clock the clock to read the time and time zone from
+     */
+    public GymClock(Clock clock){
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the clock used by the whole program
+     * @return the current gym clock, reading the system clock unless replaced
+     */
+    public static GymClock get(){
+        return current;
+    }
+
+    /**
+     * Replaces the clock used by the whole program, e.g. with a
+     * fixed clock in tests
+     * @param clock the gym clock to use from now on
+     */
+    public static void use(GymClock clock){
+        current = clock;
+    }
+
+    /**
+     * Returns the dates of the current day, working them out again
+     * once the clock passes into the next day
+     * @return the current day
+     */
+    private Day day(){
+        Day day = this.day;
+        if (day == null || this.clock.millis() >= day.nextDayMillis){
+            day = new Day(LocalDate.now(this.clock), this.clock);
+            this.day = day;
+        }
+        return day;
+    }
+
+    /**
+     * Returns today's date
+     * @return today's date
+     */
+    public Date today(){
+        return day().today;
+    }
+
+    /**
+     * Returns the date 18 years before today
+     * Anyone born on or before it is 18 or older. On a leap day it is
+     * February 29 even if that year had none, which still compares correctly
+     * @return the date 18 years before today
+     */
+    public Date eighteenYearsAgo(){
+        return day().eighteenYearsAgo;
+    }
+}
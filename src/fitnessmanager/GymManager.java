@@ -1,8 +1,18 @@
 package fitnessmanager;
 
-import java.io.FileNotFoundException;
-import java.util.Scanner;
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
 
 /**
  * User Interface class that processes commands entered into the console
@@ -11,48 +21,311 @@ import java.io.File;
  * @author Arya Shetty, John Greaney-Cheng
  */
 public class GymManager {
-    private MemberDatabase db;                          //Member Database used to keep track of members in gym
+    private MemberStore db;                             //Member Database used to keep track of members in gym
     private ClassSchedule cs;
+    private Date lastSweep;                             //Day expired members were last dropped from classes, null for never
+    private Path memberListPath;                        //File the LM command loads members from
+    private boolean echoMembers;                        //Print each member loaded by the LM command
+    private Path snapshotPath;                          //File the SS command saves to and RS restores from
+    private Journal journal;                            //Logs each change, on disk before it's printed, null if not journaling
+
+    /**
+     * JournalEntry logs one change to the journal
+     */
+    private interface JournalEntry {
+        /**
+         * Logs the change
+         * @param journal the journal
+         * @throws IOException if the journal can't be written
+         */
+        void log(Journal journal) throws IOException;
+    }
 
     /**
      * Creates an instance of the GymManager Class
+     * LM loads ".\memberList.txt" and prints each member loaded
      */
     public GymManager(){
-        this.db = new MemberDatabase();
+        this(Paths.get(".\\memberList.txt"), true);
+    }
+
+    /**
+     * Creates an instance of the GymManager Class that doesn't journal changes
+     * @param memberListPath file the LM command loads members from
+     * @param echoMembers true to print each member loaded by the LM command,
+     *                    false to only print lines that can't be loaded
+     */
+    public GymManager(Path memberListPath, boolean echoMembers){
+        this(memberListPath, echoMembers, 0);
+    }
+
+    /**
+     * Creates an instance of the GymManager Class
+     * When journaling, the last snapshot and the journal
+     * (".\gymJournal.*") are recovered when run starts, every change
+     * is logged before it's printed, and LS, LM, RS and SS save a
+     * snapshot and drop the journal records it includes (a checkpoint)
+     * @param memberListPath file the LM command loads members from
+     * @param echoMembers true to print each member loaded by the LM command,
+     *                    false to only print lines that can't be loaded
+     * @param journalGroup changes to log before forcing them to disk together,
+     *                     0 to not journal changes
+     */
+    public GymManager(Path memberListPath, boolean echoMembers, int journalGroup){
+        this(memberListPath, echoMembers, journalGroup, new MemberDatabase());
+    }
+
+    /**
+     * Creates an instance of the GymManager Class that keeps its members
+     * in the given database, e.g. a ColumnarMemberDatabase to use less memory
+     * @param memberListPath file the LM command loads members from
+     * @param echoMembers true to print each member loaded by the LM command,
+     *                    false to only print lines that can't be loaded
+     * @param journalGroup changes to log before forcing them to disk together,
+     *                     0 to not journal changes
+     * @param db the empty member database to use
+     */
+    public GymManager(Path memberListPath, boolean echoMembers, int journalGroup, MemberStore db){
+        this.db = db;
         this.cs = new ClassSchedule();
+        this.lastSweep = null;
+        this.memberListPath = memberListPath;
+        this.echoMembers = echoMembers;
+        this.snapshotPath = Paths.get(".\\gymSnapshot.bin");
+        if (journalGroup > 0){
+            this.journal = new Journal(Paths.get(".\\gymJournal"), journalGroup);
+        }
     }
 
     /**
      * Continually processes user inputted commands
-     * Terminates when user enters command to quit
+     * Terminates when user enters command to quit, or when input ends
      * Commands are checked with two helper methods:
      * Old (Same Functionality as Project 1)
      * New (New Project 2 Functionality)
      * Checks old commands first, if old command isn't run,
      * then checks new commands
      * Note: Invalid Command and Quit are in new helper method
+     * Before running the first command of each day, drops members
+     * whose membership has expired since the last day from their classes
+     * When journaling, output is held (see SyncedOutputStream) until the
+     * changes it acknowledges are forced to disk: as soon as their group
+     * fills, or else once no more input is waiting, and when quitting
      */
     public void run(){
-        System.out.println("Gym Manager Running...");
-        Scanner sc = new Scanner(System.in);
+        PrintStream console = System.out;
+        if (this.journal != null){
+            System.setOut(new PrintStream(new SyncedOutputStream(console, () -> log(Journal::sync),
+                    Constant.OUTPUT_BUFFER_CHARS.getValue()), false));
+        }
+        try {
+            System.out.println("Gym Manager Running...");
+            if (this.journal != null){
+                recover();
+            }
+            System.out.flush();
+            CommandReader reader = new CommandReader(System.in, Constant.COMMAND_BUFFER_BYTES.getValue());
+            runCommands(reader, true);
+            if (this.journal != null){
+                log(Journal::close);
+            }
+            System.out.println("Gym Manager terminated.");
+        }
+        finally {
+            System.out.flush();
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Processes a batch of commands without waiting on the console
+     * Runs the same commands with the same output as run, but the
+     * output is collected in a large buffer that's only written out
+     * when full and at the end, instead of being flushed line by line.
+     * When journaling, changes are forced to disk as each group fills,
+     * and before the buffer is written out (see SyncedOutputStream), so
+     * no output is written before the changes it acknowledges are on disk.
+     * Once done, prints how many commands were run and how fast
+     * @param commands file to read the commands from, null for the console input
+     * @param output file to write the output to, null for the console
+     */
+    public void runBatch(Path commands, Path output){
+        PrintStream console = System.out;
+        long commandsRun;
+        long start = System.nanoTime();
+        try (InputStream commandFile = commands == null ? null : Files.newInputStream(commands);
+             OutputStream outputFile = output == null ? null : Files.newOutputStream(output)){  //Null ones aren't closed
+            InputStream in = commandFile == null ? System.in : commandFile;
+            OutputStream out = outputFile == null ? console : outputFile;
+            System.setOut(new PrintStream(new SyncedOutputStream(out, () -> log(Journal::sync),
+                    Constant.BATCH_OUTPUT_BYTES.getValue()), false));
+            try {
+                System.out.println("Gym Manager Running...");
+                if (this.journal != null){
+                    recover();
+                }
+                commandsRun = runCommands(new CommandReader(in, Constant.COMMAND_BUFFER_BYTES.getValue()), false);
+                if (this.journal != null){
+                    log(Journal::close);
+                }
+                System.out.println("Gym Manager terminated.");
+            }
+            finally {
+                System.out.flush();
+                System.setOut(console);
+            }
+        }
+        catch (NoSuchFileException e) {
+            System.out.println(e.getFile() + ": File Not Found!");
+            return;
+        }
+        catch (IOException e) {
+            System.out.println("Batch: " + e.getMessage());
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Batch done, %d command(s) in %.3f seconds (%.0f commands/sec).%n",
+                commandsRun, seconds, commandsRun / Math.max(seconds, 1e-9));
+    }
+
+    /**
+     * Runs commands until the command to quit or the end of the input
+     * See run for how each command is checked
+     * @param reader splits the input into commands and their arguments
+     * @param interactive true to write out each command's output once the
+     *                    changes it acknowledges are on disk, forcing them to
+     *                    disk whenever no more input is waiting; false to
+     *                    hold the output until the buffer fills (or for quitting)
+     * @return number of commands run
+     */
+    private long runCommands(CommandReader reader, boolean interactive){
+        long commandsRun = 0;
         boolean qValue = false;
-        while (!qValue){                               //Checks if user has given command to quit
-            String command = sc.next();
-            if (!checkCommandOld(sc, command)){
-                qValue = checkCommandNew(sc, command);
+        try {
+            while (!qValue && reader.hasNext()){                //Checks if user has given command to quit
+                String command = reader.next();
+                sweepExpired();
+                if (!checkCommandOld(reader, command)){
+                    qValue = checkCommandNew(reader, command);
+                }
+                commandsRun++;
+                if (interactive && (this.journal == null || this.journal.synced()
+                        || qValue || !inputWaiting(reader))){
+                    System.out.flush();                         //Forces the journal to disk first
+                }
             }
         }
-        sc.close();
-        System.out.println("Gym Manager terminated.");
+        catch (NoSuchElementException e) {
+            System.out.println("Input ended in the middle of a command, not run.");
+        }
+        catch (IOException e) {
+            System.out.println("Input: " + e.getMessage());
+        }
+        return commandsRun;
+    }
+
+    /**
+     * Restores the last snapshot, if there is one, then replays the
+     * journal records after it
+     * Stops journaling if either can't be read, so the broken files
+     * are left for someone to look at
+     */
+    private void recover(){
+        try {
+            long sequence = 0;
+            int members = 0;
+            if (Files.isRegularFile(this.snapshotPath)){
+                sequence = Snapshot.sequence(this.snapshotPath);
+                LoadReport report = Snapshot.restore(this.snapshotPath, this.db, this.cs);
+                printErrors(report);
+                members = report.getLoaded();
+            }
+            int records = this.journal.recover(sequence, this.db, this.cs);
+            this.lastSweep = null;
+            if (members > 0 || records > 0){
+                System.out.println("Recovered " + members + " member(s) from the snapshot and "
+                        + records + " change(s) from the journal.");
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Recovery failed, not journaling: " + e.getMessage());
+            this.journal = null;
+        }
+    }
+
+    /**
+     * Logs a change to the journal, if journaling
+     * @param entry logs the change
+     */
+    private void log(JournalEntry entry){
+        if (this.journal == null){
+            return;
+        }
+        try {
+            entry.log(this.journal);
+        }
+        catch (IOException e) {
+            System.out.println("Journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks if more input is waiting to be read (ex: the rest of a
+     * piped-in batch), so forcing the journal to disk can wait for a
+     * larger group
+     * @param reader the reader commands are read with
+     * @return true if input is waiting, false if not or if unknown
+     */
+    private static boolean inputWaiting(CommandReader reader){
+        if (reader.hasBuffered()){
+            return true;
+        }
+        try {
+            return System.in.available() > 0;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Drops members whose membership expired since the last sweep
+     * from every fitness class, along with the guests they checked in
+     * Runs at most once a day: does nothing if it already ran today.
+     * The first sweep, and the first after members are loaded or
+     * restored (which sets lastSweep back to null), covers every date
+     * up to today, so members whose membership had already expired
+     * before they were loaded are dropped too.
+     * A membership counts as expired on its expiration date, same as for
+     * check-in. The members are found with the database's expiration index
+     * instead of checking the expiration date of every member
+     */
+    private void sweepExpired(){
+        Date today = GymClock.get().today();
+        if (today.equals(this.lastSweep)){
+            return;
+        }
+        Date from = this.lastSweep != null ? this.lastSweep : this.db.earliestExpiration();
+        if (from == null){                                      //No members yet
+            this.lastSweep = today;
+            return;
+        }
+        int dropped = this.cs.dropMembers(new HashSet<>(this.db.expiringBetween(from, today)));
+        this.lastSweep = today;
+        if (dropped > 0){
+            log(journal -> journal.logSweep(from, today));
+            System.out.println(dropped + " expired member(s) and guest(s) dropped from fitness classes.");
+        }
     }
 
     /**
      * Checks and runs if command is from Project 1
-     * @param sc scanner to receive user input
+     * @param sc reader to receive user input
      * @param command the command to check and run
      * @return true if a command was run, false otherwise
+     * @throws IOException if the input can't be read
      */
-    private boolean checkCommandOld(Scanner sc, String command){
+    private boolean checkCommandOld(CommandReader sc, String command) throws IOException {
         switch (command){
             case "R":                                   //Remove member from database
                 remove(sc.next(), sc.next(), sc.next());
@@ -72,17 +345,21 @@ public class GymManager {
             case "S":                                   //Print fitness class schedule
                 printSchedule();
                 return true;
+            case "SN":                                  //Search members by the start of their name
+                searchByName(sc.next());
+                return true;
         }
         return false;
     }
 
     /**
      * Checks and runs if command is from (or updated for) Project 2
-     * @param sc scanner to receive user input
+     * @param sc reader to receive user input
      * @param command the command to check and run
      * @return true if command was given to terminate, false otherwise
+     * @throws IOException if the input can't be read
      */
-    private boolean checkCommandNew(Scanner sc, String command){
+    private boolean checkCommandNew(CommandReader sc, String command) throws IOException {
         switch (command){
             case "A":                                   //Add member to database
                 add(sc.next(), sc.next(), sc.next(), sc.next(), MembershipType.STANDARD);
@@ -93,6 +370,12 @@ public class GymManager {
             case "LM":
                 loadMemberList();
                 break;
+            case "SS":                                  //Save members and class rosters to the snapshot file
+                saveSnapshot();
+                break;
+            case "RS":                                  //Restore members and class rosters from the snapshot file
+                restoreSnapshot();
+                break;
             case "AF":
                 add(sc.next(), sc.next(), sc.next(), sc.next(), MembershipType.FAMILY);
                 break;
@@ -149,6 +432,8 @@ public class GymManager {
                     memberToAdd = null;
             }
             if (this.db.add(memberToAdd)){               //Checks if member has already been added to database
+                Member added = memberToAdd;
+                log(journal -> journal.logAdd(added));
                 System.out.println(fname + " " + lname + " added.");
             }
             else {
@@ -169,17 +454,16 @@ public class GymManager {
      * @return true if member meets conditions to be added, false otherwise
      */
     private boolean canBeAdded(String dob, String location){
-        Date birthday = new Date(dob);
-        if (!birthday.isValid()){                                                       //Checks if birthday date is a valid date
+        Date birthday = Date.parse(dob);
+        if (birthday == null || !birthday.isValid()){                                   //Checks if birthday date is a valid date
             System.out.println("DOB " + dob + ": invalid calendar date!");
             return false;
         }
-        Date today = new Date();
-        if (birthday.compareTo(today) >= 0){                                            //Checks if birthday date is before today
+        if (birthday.compareTo(GymClock.get().today()) >= 0){                           //Checks if birthday date is before today
             System.out.println("DOB " + dob + ": cannot be today or a future date!");
             return false;
         }
-        if (!isOverEighteen(birthday, today)){                                          //Checks if member is over 18
+        if (!isOverEighteen(birthday)){                                          //Checks if member is over 18
             System.out.println("DOB " + dob + ": must be 18 or older to join!");
             return false;
         }
@@ -199,7 +483,9 @@ public class GymManager {
      * @param dob birthday of the member to remove
      */
     private void remove(String fname, String lname, String dob){
-        if (this.db.remove(new Member(fname, lname, dob))){                                  //Checks if member exists in the database
+        Member memberToRemove = new Member(fname, lname, dob);
+        if (this.db.remove(memberToRemove)){                                  //Checks if member exists in the database
+            log(journal -> journal.logRemove(memberToRemove));
             System.out.println(fname + " " + lname + " removed.");
         }
         else{
@@ -254,6 +540,25 @@ public class GymManager {
         System.out.println("-end of list-");
     }
 
+    /**
+     * Prints the members whose last or first name starts with a prefix
+     * Prints at most Constant.NAME_SEARCH_LIMIT members, last name
+     * matches first
+     * @param prefix the start of the name, not case-sensitive
+     */
+    private void searchByName(String prefix){
+        ArrayList<Member> matches = this.db.searchByPrefix(prefix, Constant.NAME_SEARCH_LIMIT.getValue());
+        if (matches.isEmpty()){
+            System.out.println("No member name starts with " + prefix + ".");
+            return;
+        }
+        System.out.println("-members with a name starting with " + prefix + "-");
+        for (Member member : matches){
+            System.out.println(member.toString());
+        }
+        System.out.println("-end of list-");
+    }
+
     /**
      * Prints out unsorted list of members with their fees and guest passes
      * Checks if list is empty,
@@ -288,21 +593,27 @@ public class GymManager {
      * Prints out fitness class
      * Includes the class name, instructor name, time,
      * followed by all members and guests that have checked into the class
+     * and the members on its waitlist
      */
     private void printFitnessClass(FitnessClass fitnessClass){
         System.out.println(fitnessClass.toString());
         if (!fitnessClass.memberListIsEmpty()){
             System.out.println("- Participants - ");
-            int size = fitnessClass.getMemberListSize();
-            for (int memberIndex = 0; memberIndex < size; memberIndex++){
-                System.out.println(fitnessClass.getIndexedMemberFromMemberList(memberIndex).toString());
+            for (Member member : fitnessClass.getMemberList()){
+                System.out.println(member.toString());
             }
         }
         if (!fitnessClass.guestListIsEmpty()) {
             System.out.println("- Guests - ");
-            int size = fitnessClass.getGuestListSize();
-            for (int guestIndex = 0; guestIndex < size; guestIndex++){
-                System.out.println(fitnessClass.getIndexedMemberFromGuestList(guestIndex).toString());
+            for (Member memberWithGuest : fitnessClass.getGuestList()){
+                System.out.println(memberWithGuest.toString());
+            }
+        }
+        ArrayList<Member> waitlist = fitnessClass.getWaitlist();
+        if (!waitlist.isEmpty()) {
+            System.out.println("- Waitlist - ");
+            for (Member member : waitlist){
+                System.out.println(member.toString());
             }
         }
     }
@@ -314,7 +625,8 @@ public class GymManager {
      * If member is standard (i.e. not instanceof Family), check if
      * class location to check into is valid
      * If all conditions above are met, checks member into class if
-     * not checked in or says member is already checked in
+     * not checked in or says member is already checked in. If the class
+     * is full, puts the member on its waitlist instead
      * @param className name of the class type to check into (ex: Pilates or Spinning)
      * @param instructorName name of the instructor of the class to check into
      * @param location location of the class to check into
@@ -334,13 +646,28 @@ public class GymManager {
                     return;
                 }
             }
-            FitnessClass classToEnrollIn = this.cs.classExists(new FitnessClass(className, instructorName, location));
-            if (classToEnrollIn.checkIn(memberToCheckIn)){
-                System.out.print(fname + " " + lname + " checked in ");
-                printFitnessClass(classToEnrollIn);
+            FitnessClass classToEnrollIn = findClass(className, instructorName, location);
+            EnrollmentStatus status = this.cs.enroll(classToEnrollIn, memberToCheckIn);
+            if (status == EnrollmentStatus.CHECKED_IN || status == EnrollmentStatus.WAITLISTED){
+                log(journal -> journal.logCheckIn(classToEnrollIn, memberToCheckIn));
             }
-            else {
-                System.out.println(fname + " " + lname + " already checked in.");
+            switch (status){
+                case CHECKED_IN:
+                    System.out.print(fname + " " + lname + " checked in ");
+                    printFitnessClass(classToEnrollIn);
+                    break;
+                case ALREADY_CHECKED_IN:
+                    System.out.println(fname + " " + lname + " already checked in.");
+                    break;
+                case WAITLISTED:
+                    System.out.println(fname + " " + lname + " added to the waitlist of " + classToEnrollIn.toString() + ".");
+                    break;
+                case ALREADY_WAITLISTED:
+                    System.out.println(fname + " " + lname + " already on the waitlist.");
+                    break;
+                case TIME_CONFLICT:
+                    printTimeConflict(classToEnrollIn);
+                    break;
             }
         }
     }
@@ -350,6 +677,7 @@ public class GymManager {
      * First checks if fitness class and member conditions are valid
      * If conditions are valid, drops member from class if
      * they're checked in or says member is not checked in
+     * A member on the class's waitlist is taken off it
      * @param className name of the class type to drop (ex: Pilates or Spinning)
      * @param instructorName name of the instructor of the class to drop
      * @param location location of the class to drop
@@ -359,10 +687,15 @@ public class GymManager {
      */
     private void checkOut(String className, String instructorName, String location, String fname, String lname, String dob) {
        if(validFitnessClassConditions(className, instructorName, location, fname, lname, dob)){
-           FitnessClass classToDrop = cs.classExists(new FitnessClass(className, instructorName, location));
+           FitnessClass classToDrop = findClass(className, instructorName, location);
            Member memberToDrop = this.db.findMember(new Member(fname, lname, dob));
-           if(classToDrop.find(memberToDrop) != null){
-               classToDrop.checkOut(memberToDrop);
+           boolean waitlisted = classToDrop.isWaitlisted(memberToDrop);
+           if(this.cs.checkOut(classToDrop, memberToDrop)){
+               log(journal -> journal.logCheckOut(classToDrop, memberToDrop));
+               if (waitlisted){
+                   System.out.println(fname + " " + lname + " removed from the waitlist.");
+                   return;
+               }
                System.out.println(fname + " " + lname + " done with the class.");
                return;
            }
@@ -379,6 +712,7 @@ public class GymManager {
      * Then checks if member has guest passes (casts to confirm member is
      * premium or family)
      * If all conditions above are met, checks guest into class
+     * unless it's full, in which case the guest pass is given back
      * @param className name of the class type to check guest into (ex: Pilates or Spinning)
      * @param instructorName name of the instructor of the class to check guest into
      * @param location location of the class to check guest into
@@ -412,8 +746,19 @@ public class GymManager {
                 System.out.println(fname + " " + lname + " ran out of guest pass.");
                 return;
             }
-            FitnessClass classToEnrollIn = this.cs.classExists(new FitnessClass(className, instructorName, location));
-            classToEnrollIn.checkInGuest(memberWithGuest);
+            FitnessClass classToEnrollIn = findClass(className, instructorName, location);
+            if (!classToEnrollIn.checkInGuest(memberWithGuest)){
+                if(memberWithGuest instanceof Premium){
+                    ((Premium) memberWithGuest).returnGuestPass();
+                }
+                else {
+                    ((Family) memberWithGuest).returnGuestPass();
+                }
+                System.out.println(fname + " " + lname + " Guest checking in " + classToEnrollIn.toString()
+                        + " - class is full.");
+                return;
+            }
+            log(journal -> journal.logGuestIn(classToEnrollIn, memberWithGuest));
             System.out.print(fname + " " + lname + " (guest) checked in ");
             printFitnessClass(classToEnrollIn);
         }
@@ -434,7 +779,7 @@ public class GymManager {
     private void checkOutGuest(String className, String instructorName, String location, String fname, String lname, String dob){
         if(validFitnessClassConditions(className, instructorName, location, fname, lname, dob)){
             Member memberWithGuest = this.db.findMember(new Member(fname, lname, dob));
-            FitnessClass classToDrop = this.cs.classExists(new FitnessClass(className, instructorName, location));
+            FitnessClass classToDrop = findClass(className, instructorName, location);
             if(classToDrop.findGuest(memberWithGuest) != null){
                 classToDrop.checkOutGuest(memberWithGuest);
                 if(memberWithGuest instanceof Premium){
@@ -443,6 +788,7 @@ public class GymManager {
                 else {
                     ((Family) memberWithGuest).returnGuestPass();
                 }
+                log(journal -> journal.logGuestOut(classToDrop, memberWithGuest));
                 System.out.println(fname + " " + lname + " Guest done with the class.");
                 return;
             }
@@ -471,8 +817,8 @@ public class GymManager {
      *         false otherwise
      */
     private boolean validFitnessClassConditions(String className, String instructorName, String location, String fname, String lname, String dob) {
-        Date birthday = new Date(dob);
-        if (!birthday.isValid()) {                                                       //Checks if birthday date is a valid date
+        Date birthday = Date.parse(dob);
+        if (birthday == null || !birthday.isValid()) {                                   //Checks if birthday date is a valid date
             System.out.println("DOB " + dob + ": invalid calendar date!");
             return false;
         }
@@ -493,7 +839,7 @@ public class GymManager {
             return false;
         }
 
-        if (memberToCheckIn.getExpire().compareTo(new Date()) <= 0) {
+        if (memberToCheckIn.getExpire().compareTo(GymClock.get().today()) <= 0) {
             System.out.println(fname + " " + lname + " " + dob + " membership expired.");
             return false;
         }
@@ -503,18 +849,33 @@ public class GymManager {
             return false;
         }
 
-        if (cs.classExists(new FitnessClass(className, instructorName, location)) == null) {
+        if (findClass(className, instructorName, location) == null) {
             System.out.println(className + " by " + instructorName + " does not exist at " + location);
             return false;
         }
         return true;
     }
 
+    /**
+     * Finds a class in the class schedule
+     * Looks the class up by its class type, instructor and location
+     * without creating a FitnessClass to compare against
+     * @param className name of the class type of the class
+     * @param instructorName name of the instructor of the class
+     * @param location name of the location of the class
+     * @return the class in the class schedule if it exists
+     *         null otherwise
+     */
+    private FitnessClass findClass(String className, String instructorName, String location){
+        return this.cs.classAt(ClassName.stringToClassName(className), Instructor.stringToInstructor(instructorName),
+                Location.stringToLocation(location));
+    }
+
     /**
      * Checks if member is enrolled in a class with a conflicting time
-     * First checks that member is already enrolled in a class different
-     * from class to enroll in.
-     * If so, compares times of the two classes
+     * Looks for a different class the member is in with a session
+     * overlapping a session of the class to enroll in. Finds the
+     * conflict even if the member is in several classes
      * @param className name of the class type of class to enroll in
      * @param instructorName name of the instructor of class to enroll in
      * @param location name of the location of class to enroll in
@@ -525,65 +886,262 @@ public class GymManager {
      *         false otherwise
      */
     private boolean classConflict(String className, String instructorName, String location, String fname, String lname, String dob){
-        FitnessClass classToEnrollIn = cs.classExists(new FitnessClass(className, instructorName, location));
-        FitnessClass classAlreadyEnrolledIn = cs.findClassMemberEnrolledIn(new Member(fname,lname,dob));
-
-        if (classAlreadyEnrolledIn == null || classAlreadyEnrolledIn.equals(classToEnrollIn)){
-            return false;
-        }
+        FitnessClass classToEnrollIn = findClass(className, instructorName, location);
+        FitnessClass classAlreadyEnrolledIn = cs.conflictingClass(new Member(fname,lname,dob), classToEnrollIn);
 
-        if (classAlreadyEnrolledIn.getTime().equals(classToEnrollIn.getTime())){
-            System.out.println("Time conflict - " + classToEnrollIn.getClassName().name() + " - " + classToEnrollIn.getInstructor().name()
-                    + ", " + classToEnrollIn.getTime().toString() +
-                    ", " + classToEnrollIn.getLocation().toString());
+        if (classAlreadyEnrolledIn != null && !classAlreadyEnrolledIn.equals(classToEnrollIn)){
+            printTimeConflict(classToEnrollIn);
             return true;
         }
         return false;
     }
 
+    /**
+     * Prints that a class conflicts with one the member is already in
+     * @param classToEnrollIn the class the member tried to enroll in
+     */
+    private void printTimeConflict(FitnessClass classToEnrollIn){
+        System.out.println("Time conflict - " + classToEnrollIn.getClassName().name() + " - " + classToEnrollIn.getInstructor().name()
+                + ", " + classToEnrollIn.getTimeName() +
+                ", " + classToEnrollIn.getLocation().toString());
+    }
+
     /**
      * Loads the fitness class schedule
-     * Imports classes from "classSchedule.txt"
+     * Imports classes from "classSchedule.txt", one per line (see parseClass)
+     * The file is parsed in chunks (see ChunkedReader), then the classes
+     * are added in file order. Lines that can't be read are printed and skipped
      */
     private void loadSchedule(){
+        Path path = Paths.get(".\\classSchedule.txt");
+        if (!Files.isRegularFile(path)){
+            System.out.println("File Not Found!");
+            return;
+        }
+        ArrayList<ParsedChunk<FitnessClass>> chunks;
         try {
-            File classSchedule = new File(".\\classSchedule.txt");
-            Scanner sc = new Scanner(classSchedule);
-            System.out.println("-Fitness classes loaded-");
-            while (sc.hasNext()){
-                FitnessClass fc = new FitnessClass(sc.next(), sc.next(), sc.next(), sc.next());
+            chunks = ChunkedReader.read(path, GymManager::parseSchedule);
+        }
+        catch (NoSuchFileException e) {
+            System.out.println("File Not Found!");
+            return;
+        }
+        catch (IOException e) {
+            System.out.println(path + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("-Fitness classes loaded-");
+        LoadReport report = new LoadReport();
+        long line = 1;                                          //Line number of the chunk's first line
+        for (ParsedChunk<FitnessClass> chunk : chunks){
+            for (FitnessClass fc : chunk.getItems()){
                 this.cs.addClass(fc);
+                report.addLoaded();
             }
-            cs.printClasses();
-            System.out.println("-end of class list.");
-            sc.close();
+            chunk.reportErrors(report, line);
+            line += chunk.getLines();
         }
-        catch(FileNotFoundException e) {
-            System.out.println("File Not Found!");
+        printErrors(report);
+        cs.printClasses();
+        System.out.println("-end of class list.");
+        checkpointLoad();
+    }
+
+    /**
+     * Parses the lines of one chunk of the class schedule
+     * @param bytes the chunk
+     * @return the classes and errors in the chunk
+     */
+    private static ParsedChunk<FitnessClass> parseSchedule(ByteBuffer bytes){
+        ParsedChunk<FitnessClass> chunk = new ParsedChunk<>();
+        String text = StandardCharsets.UTF_8.decode(bytes).toString();
+        int lineStart = 0;
+        while (lineStart < text.length()){
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0){                                   //Last line has no line break
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).trim();
+            if (line.isEmpty()){
+                chunk.skip();
+            }
+            else {
+                parseClass(line, line.split("\\s+"), chunk);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * Reads a class from a line of the class schedule
+     * Format: class type, instructor, time, location, then optionally
+     *  - capacity, or - for unlimited (unlimited if left out)
+     *  - days of the week it's held on, ex: MON,WED,FRI (every day if left out)
+     *  - length of each session in minutes (60 if left out)
+     * The time is MORNING, AFTERNOON or EVENING, or a time like 7:15
+     * @param line the line
+     * @param fields the line split into fields
+     * @param chunk where the class, or why the line can't be read, is added
+     */
+    private static void parseClass(String line, String[] fields, ParsedChunk<FitnessClass> chunk){
+        int capacityField = Constant.CLASS_FIELDS.getValue();
+        int daysField = capacityField + 1;
+        int minutesField = daysField + 1;
+        if (fields.length < capacityField || fields.length > minutesField + 1){
+            chunk.error(line + ": wrong number of fields");
+            return;
+        }
+        FitnessClass fc = new FitnessClass(fields[0], fields[1], fields[2], fields[3]);
+        if (fc.getStartTime() == null){
+            chunk.error(line + ": invalid time");
+            return;
+        }
+        if (fields.length > capacityField && !fields[capacityField].equals("-")){
+            int capacity = parsePositive(fields[capacityField]);
+            if (capacity <= 0){                                 //Capacity must be a positive number
+                chunk.error(line + ": invalid capacity");
+                return;
+            }
+            fc.setCapacity(capacity);
+        }
+        int days = fields.length > daysField ? FitnessClass.parseDays(fields[daysField]) : -1;
+        int minutes = fields.length > minutesField ? parsePositive(fields[minutesField])
+                : Constant.DEFAULT_CLASS_MINUTES.getValue();
+        if (days == 0){
+            chunk.error(line + ": invalid days");
+            return;
+        }
+        if (minutes <= 0 || minutes > Constant.MINUTES_PER_DAY.getValue()){     //Sessions last at most a day
+            chunk.error(line + ": invalid length");
+            return;
+        }
+        if (days > 0){
+            fc.setWeeklySchedule(days, minutes);
+        }
+        chunk.add(fc);
+    }
+
+    /**
+     * Prints the lines of a file (or roster entries of a snapshot)
+     * that couldn't be loaded
+     * @param report the report from loading the file
+     */
+    private static void printErrors(LoadReport report){
+        for (String error : report.getErrors()){
+            System.out.println(error + ", not loaded.");
+        }
+    }
+
+    /**
+     * Reads a positive whole number
+     * @param text the number
+     * @return the number,
+     *         0 if the text isn't a positive whole number
+     */
+    private static int parsePositive(String text){
+        try {
+            return Math.max(Integer.parseInt(text), 0);
+        }
+        catch (NumberFormatException e){
+            return 0;
         }
     }
 
     /**
      * Loads a list of members to the database
-     * Imports members from "memberList.txt"
+     * Imports members from the member list file (".\memberList.txt" unless
+     * set when creating the GymManager), see MemberLoader
+     * Prints each loaded member if echoing is on, then the lines that
+     * can't be read as a member, which are skipped
      */
     private void loadMemberList(){
+        if (!Files.isRegularFile(this.memberListPath)){
+            System.out.println("File Not Found!");
+            return;
+        }
+        System.out.println("-list of members loaded-");
         try {
-            File memberList = new File(".\\memberList.txt");
-            Scanner sc = new Scanner(memberList);
-            System.out.println("-list of members loaded-");
-            while (sc.hasNext()){
-                Member toAdd = new Member(sc.next(), sc.next(), sc.next(), sc.next(), sc.next());
-                db.add(toAdd);
-                System.out.println(toAdd.toString());
-            }
-            System.out.println("-end of list-");
-            sc.close();
+            printErrors(new MemberLoader(this.db, System.out, this.echoMembers).load(this.memberListPath));
         }
-        catch(FileNotFoundException e) {
+        catch (NoSuchFileException e) {
             System.out.println("File Not Found!");
         }
+        catch (IOException e) {
+            System.out.println(this.memberListPath + ": " + e.getMessage());
+        }
+        System.out.println("-end of list-");
+        this.lastSweep = null;
+        checkpointLoad();
+    }
+
+    /**
+     * Saves the members, class schedule, rosters and guest passes left
+     * to the snapshot file (".\gymSnapshot.bin"), see Snapshot
+     */
+    private void saveSnapshot(){
+        try {
+            int members = checkpoint();
+            System.out.println("Snapshot saved, " + members + " member(s).");
+        }
+        catch (IOException e) {
+            System.out.println(this.snapshotPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves a snapshot and, if journaling, drops the journal records it includes
+     * @return number of members saved
+     * @throws IOException if the snapshot or journal can't be written
+     */
+    private int checkpoint() throws IOException {
+        if (this.journal == null){
+            return Snapshot.save(this.snapshotPath, this.db, this.cs, 0);
+        }
+        long sequence = this.journal.lastSequence();
+        int members = Snapshot.save(this.snapshotPath, this.db, this.cs, sequence);
+        this.journal.checkpoint(sequence);
+        return members;
+    }
+
+    /**
+     * Saves a checkpoint after a change that isn't journaled (loading
+     * a file or a snapshot), if journaling
+     * Prints nothing unless the checkpoint fails
+     */
+    private void checkpointLoad(){
+        if (this.journal == null){
+            return;
+        }
+        try {
+            checkpoint();
+        }
+        catch (IOException e) {
+            System.out.println(this.snapshotPath + ": " + e.getMessage());
+        }
+    }
 
+    /**
+     * Restores the members, class schedule, rosters and guest passes left
+     * from the snapshot file, see Snapshot
+     * Prints each roster entry that couldn't be restored
+     */
+    private void restoreSnapshot(){
+        if (!Files.isRegularFile(this.snapshotPath)){
+            System.out.println("File Not Found!");
+            return;
+        }
+        try {
+            LoadReport report = Snapshot.restore(this.snapshotPath, this.db, this.cs);
+            printErrors(report);
+            System.out.println("Snapshot restored, " + report.getLoaded() + " member(s).");
+            this.lastSweep = null;
+        }
+        catch (IOException e) {
+            System.out.println(this.snapshotPath + ": " + e.getMessage());
+            return;
+        }
+        checkpointLoad();
     }
 
     /**
@@ -596,31 +1154,13 @@ public class GymManager {
 
     /**
      * Checks if member is over 18 years old
-     * Compares birth year and current year to see if
-     * difference is greater than or less than 18. If difference
-     * is equal to 18, compares months and if months are equal,
-     * compares days.
+     * Member is 18 or older if they were born on or before the date
+     * 18 years ago, which the gym clock works out once a day
      * @param birthday birthday of the member
-     * @param today current day's date
      * @return true if member is 18 or older, false otherwise
      */
-    private boolean isOverEighteen(Date birthday, Date today){
-        if (today.getYear() - birthday.getYear() > Constant.MINIMUM_AGE.getValue()){
-            return true;
-        }
-        if (today.getYear() - birthday.getYear() < Constant.MINIMUM_AGE.getValue()){
-            return false;
-        }
-        if (today.getMonth() > birthday.getMonth()){
-            return true;
-        }
-        if (today.getMonth() < birthday.getMonth()){
-            return false;
-        }
-        if (today.getDay() >= birthday.getDay()){
-            return true;
-        }
-        return false;
+    private boolean isOverEighteen(Date birthday){
+        return birthday.compareTo(GymClock.get().eighteenYearsAgo()) <= 0;
     }
 
     /**
@@ -633,18 +1173,18 @@ public class GymManager {
      * @return expiration date corresponding to membership type
      */
     private Date getExpirationDate(MembershipType membershipType){
-        Date today = new Date();
+        Date today = GymClock.get().today();
         switch (membershipType){
             case STANDARD:
             case FAMILY:
                 int futureMonth = 3 + today.getMonth();
                 if (futureMonth > 12){
                     futureMonth = futureMonth - 12;
-                    return new Date(futureMonth, today.getDay(), today.getYear() + 1);
+                    return Date.of(futureMonth, today.getDay(), today.getYear() + 1);
                 }
-                return new Date(futureMonth, today.getDay(), today.getYear());
+                return Date.of(futureMonth, today.getDay(), today.getYear());
             case PREMIUM:
-                return new Date(today.getMonth(), today.getDay(), today.getYear() + 1);
+                return Date.of(today.getMonth(), today.getDay(), today.getYear() + 1);
         }
         return null;
     }
@@ -11,18 +11,16 @@ public enum Instructor {
     DAVIS,
     EMMA;
 
+    private static final EnumCodec<Instructor> CODEC = new EnumCodec<>(values());   //Looks constants up by name
+
     /**
      * Method takes in instructor name and returns an instructor enum
+     * Looks the name up in a table built once, without creating any objects
      * @param str, string that represents instructor name
      * @return instructor string was referring to if they exist,
      *         null otherwise
      */
-    public static Instructor stringToInstructor(String str){
-        for (Instructor instructor: Instructor.values()){
-            if (str.equalsIgnoreCase(instructor.name())){
-                return instructor;
-            }
-        }
-        return null;
+    public static Instructor stringToInstructor(CharSequence str){
+        return CODEC.lookup(str);
     }
 }
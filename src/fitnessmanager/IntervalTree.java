@@ -0,0 +1,215 @@
+package fitnessmanager;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IntervalTree finds the values whose intervals overlap a range
+ * Stores the following data:
+ *  - Intervals [start, end) and their values, in a tree ordered by start
+ *  - Latest end in each subtree, to skip subtrees ending before a range
+ * The tree is a treap (each node also has a random priority, kept in
+ * heap order), so it stays balanced and adding, removing and finding
+ * the k intervals overlapping a range take O(log n + k)
+ * Not safe to change from several threads at once
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class IntervalTree<V> {
+    private Node<V> root;
+    private int size;
+
+    /**
+     * Node holds one interval and its value
+     */
+    private static class Node<V> {
+        private final int start;
+        private final int end;
+        private final V value;
+        private final int priority;             //Random, a node's priority is never below its children's
+        private int maxEnd;                     //Latest end in the subtree rooted here
+        private Node<V> left;
+        private Node<V> right;
+
+        /**
+         * Creates a node with no children
+         * @param start start of the interval
+         * @param end end of the interval, not included in it
+         * @param value value of the interval
+         */
+        Node(int start, int end, V value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.maxEnd = end;
+        }
+
+        /**
+         * Works out maxEnd again after a child changed
+         */
+        void update() {
+            this.maxEnd = this.end;
+            if (this.left != null && this.left.maxEnd > this.maxEnd){
+                this.maxEnd = this.left.maxEnd;
+            }
+            if (this.right != null && this.right.maxEnd > this.maxEnd){
+                this.maxEnd = this.right.maxEnd;
+            }
+        }
+    }
+
+    /**
+     * Adds an interval
+     * @param start start of the interval
+     * @param end end of the interval, not included in it
+     * @param value value of the interval
+     */
+    void add(int start, int end, V value){
+        this.root = insert(this.root, new Node<>(start, end, value));
+        this.size++;
+    }
+
+    /**
+     * Inserts a node under a subtree, rotating it up while its
+     * priority is higher than its parent's
+     * @param node root of the subtree
+     * @param added the node to insert
+     * @return new root of the subtree
+     */
+    private static <V> Node<V> insert(Node<V> node, Node<V> added){
+        if (node == null){
+            return added;
+        }
+        if (added.start < node.start){
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority){
+                Node<V> left = node.left;                  //Rotate right
+                node.left = left.right;
+                node.update();
+                left.right = node;
+                node = left;
+            }
+        }
+        else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority){
+                Node<V> right = node.right;                //Rotate left
+                node.right = right.left;
+                node.update();
+                right.left = node;
+                node = right;
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Removes an interval
+     * @param start start of the interval
+     * @param end end of the interval
+     * @param value value of the interval
+     * @return true if the interval was removed,
+     *         false if there was no such interval
+     */
+    boolean remove(int start, int end, V value){
+        int before = this.size;
+        this.root = delete(this.root, start, end, value, before);
+        return this.size < before;
+    }
+
+    /**
+     * Deletes a node from a subtree, joining its children in its place
+     * Intervals with the same start may be on either side of each other
+     * after rotations, so the right side is searched too if the left
+     * side didn't have it
+     * @param node root of the subtree
+     * @param start start of the interval
+     * @param end end of the interval
+     * @param value value of the interval
+     * @param before number of intervals before the remove started
+     * @return new root of the subtree
+     */
+    private Node<V> delete(Node<V> node, int start, int end, V value, int before){
+        if (node == null){
+            return null;
+        }
+        if (node.start == start && node.end == end && node.value.equals(value)){
+            this.size--;
+            return merge(node.left, node.right);
+        }
+        if (start <= node.start){
+            node.left = delete(node.left, start, end, value, before);
+        }
+        if (start >= node.start && this.size == before){
+            node.right = delete(node.right, start, end, value, before);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two subtrees, every start in the first not after any in the second
+     * @param left the first subtree
+     * @param right the second subtree
+     * @return root of the joined subtree
+     */
+    private static <V> Node<V> merge(Node<V> left, Node<V> right){
+        if (left == null){
+            return right;
+        }
+        if (right == null){
+            return left;
+        }
+        if (left.priority > right.priority){
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    /**
+     * Finds the values of intervals overlapping a range
+     * @param start start of the range
+     * @param end end of the range, not included in it
+     * @return values of the overlapping intervals, ordered by start
+     */
+    ArrayList<V> overlapping(int start, int end){
+        ArrayList<V> values = new ArrayList<>();
+        collect(this.root, start, end, values);
+        return values;
+    }
+
+    /**
+     * Collects the values of intervals in a subtree overlapping a range
+     * Skips subtrees whose intervals all end by the start of the range,
+     * and right subtrees whose intervals all start after its end
+     * @param node root of the subtree
+     * @param start start of the range
+     * @param end end of the range
+     * @param values where the values are collected
+     */
+    private static <V> void collect(Node<V> node, int start, int end, ArrayList<V> values){
+        while (node != null && node.maxEnd > start){
+            collect(node.left, start, end, values);
+            if (node.start >= end){
+                return;
+            }
+            if (node.end > start){
+                values.add(node.value);
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Checks if this tree has no intervals
+     * @return true if this tree is empty, false otherwise
+     */
+    boolean isEmpty(){
+        return this.size == 0;
+    }
+}
@@ -0,0 +1,514 @@
+package fitnessmanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal is a write-ahead log of the changes made to the members and
+ * class rosters since the last snapshot
+ * Stores the following data:
+ *  - Records appended but not yet written, and the sequence number of
+ *      the next record
+ *  - Sequence number of the last record forced to disk
+ *  - The segment file records are appended to
+ * Each change is logged as what it did (ex: the member added, with the
+ * expiration date they got), not as the command typed, so replaying it
+ * on another day does the same thing. Record format (big-endian): length
+ * of the payload, CRC32C of the rest of the record, sequence number,
+ * type, then the payload. Records go to segment files named after the
+ * journal with the sequence number of their first record, ex:
+ * gymJournal.1, gymJournal.5021
+ * Commits are grouped: a record is forced to disk once groupSize records
+ * are waiting (or sync is called), with one fsync for the whole group.
+ * Threads syncing at the same time share the fsync of whichever of them
+ * gets to the file first
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class Journal {
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CHECK_IN = 3;
+    private static final byte CHECK_OUT = 4;
+    private static final byte GUEST_IN = 5;
+    private static final byte GUEST_OUT = 6;
+    private static final byte SWEEP = 7;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES + 1;    //Length, CRC, sequence, type
+    private static final int RECORD_BYTES = 64;                 //Room for a record's dates, ordinals and lengths
+
+    private final Path base;                                    //Segments are named base.sequence
+    private final int groupSize;
+    private final Object appendLock;                            //Guards pending, waiting and nextSequence
+    private final Object syncLock;                              //Guards segment, segmentStart and spare
+    private ByteBuffer pending;                                 //Records appended, not yet written
+    private ByteBuffer spare;                                   //Written out while pending fills up again
+    private int waiting;                                        //Records in pending
+    private long nextSequence;
+    private volatile long durable;                              //Last record forced to disk
+    private FileChannel segment;
+    private long segmentStart;                                  //Sequence number of the segment's first record
+
+    /**
+     * Creates a journal, not open until recovered
+     * @param base path of the journal, segments are named after it
+     * @param groupSize records to wait for before forcing them to disk,
+     *                  1 to force every record as it's logged
+     */
+    Journal(Path base, int groupSize){
+        this.base = base;
+        this.groupSize = Math.max(1, groupSize);
+        this.appendLock = new Object();
+        this.syncLock = new Object();
+        this.pending = ByteBuffer.allocate(Constant.OUTPUT_BUFFER_CHARS.getValue());
+        this.spare = ByteBuffer.allocate(Constant.OUTPUT_BUFFER_CHARS.getValue());
+        this.nextSequence = 1;
+    }
+
+    /**
+     * Replays the records after a snapshot and opens the journal for logging
+     * Records are replayed in order, from the oldest segment. A record
+     * cut short or corrupted at the end of the last segment (a write
+     * interrupted by a crash) is cut off, and the records before it are kept
+     * @param after the last record included in the snapshot restored, 0 if none
+     * @param db where the records' members are added and removed
+     * @param cs where the records' classes are checked into and out of
+     * @return number of records replayed
+     * @throws IOException if a segment can't be read or written, or one
+     *         before the last is corrupt
+     */
+    int recover(long after, MemberStore db, ClassSchedule cs) throws IOException {
+        ArrayList<Long> starts = segments();
+        long last = after;
+        int replayed = 0;
+        for (int i = 0; i < starts.size(); i++){
+            Path path = segmentPath(starts.get(i));
+            ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (records.remaining() >= HEADER_BYTES){
+                int start = records.position();
+                int length = records.getInt(start);
+                if (length < 0 || length > records.remaining() - HEADER_BYTES){
+                    break;
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(records.array(), start + Integer.BYTES * 2, HEADER_BYTES - Integer.BYTES * 2 + length);
+                if ((int) crc.getValue() != records.getInt(start + Integer.BYTES)){
+                    break;
+                }
+                records.position(start + Integer.BYTES * 2);
+                long sequence = records.getLong();
+                byte type = records.get();
+                ByteBuffer payload = records.slice().limit(length);
+                records.position(records.position() + length);
+                if (sequence > last){
+                    apply(type, payload, db, cs);
+                    last = sequence;
+                    replayed++;
+                }
+            }
+            if (records.hasRemaining()){
+                if (i < starts.size() - 1){
+                    throw new IOException(path + ": journal is corrupt");
+                }
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)){
+                    channel.truncate(records.position());
+                    channel.force(true);
+                }
+            }
+        }
+        this.nextSequence = last + 1;
+        this.durable = last;
+        this.segmentStart = starts.isEmpty() ? this.nextSequence : starts.get(starts.size() - 1);
+        this.segment = FileChannel.open(segmentPath(this.segmentStart), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return replayed;
+    }
+
+    /**
+     * Applies one record to the members and rosters
+     * @param type the record type
+     * @param payload the record's payload
+     * @param db the members
+     * @param cs the classes
+     */
+    private static void apply(byte type, ByteBuffer payload, MemberStore db, ClassSchedule cs){
+        if (type == SWEEP){
+            Date from = Date.intern(payload.getInt());
+            Date to = Date.intern(payload.getInt());
+            cs.dropMembers(new HashSet<>(db.expiringBetween(from, to)));
+            return;
+        }
+        if (type == ADD){
+            db.add(getNewMember(payload));
+            return;
+        }
+        FitnessClass fc = type == REMOVE ? null : cs.classAt(ClassName.values()[payload.get()],
+                Instructor.values()[payload.get()], Location.values()[payload.get()]);
+        Member key = new Member(getString(payload), getString(payload), Date.intern(payload.getInt()), null, null);
+        Member member = db.findMember(key);
+        if (type == REMOVE){
+            db.remove(key);
+            return;
+        }
+        if (fc == null || member == null){                      //Nothing to replay it on
+            return;
+        }
+        switch (type){
+            case CHECK_IN:
+                cs.enroll(fc, member);
+                break;
+            case CHECK_OUT:
+                cs.checkOut(fc, member);
+                break;
+            case GUEST_IN:
+                if (member instanceof Family && ((Family) member).useGuestPass() && !fc.checkInGuest(member)){
+                    ((Family) member).returnGuestPass();
+                }
+                break;
+            case GUEST_OUT:
+                if (member instanceof Family && fc.findGuest(member) != null){
+                    fc.checkOutGuest(member);
+                    ((Family) member).returnGuestPass();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Logs a member added to the database
+     * @param member the member, as added
+     * @throws IOException if the journal can't be written
+     */
+    void logAdd(Member member) throws IOException {
+        byte[] fname = member.getFname().getBytes(StandardCharsets.UTF_8);
+        byte[] lname = member.getLname().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(fname.length + lname.length + RECORD_BYTES);
+        MembershipType type = member instanceof Premium ? MembershipType.PREMIUM
+                : member instanceof Family ? MembershipType.FAMILY : MembershipType.STANDARD;
+        payload.put((byte) type.ordinal());
+        putBytes(payload, fname);
+        putBytes(payload, lname);
+        payload.putInt(member.getDob().pack());
+        payload.putInt(member.getExpire().pack());
+        payload.put((byte) member.getLocation().ordinal());
+        log(ADD, payload);
+    }
+
+    /**
+     * Logs a member removed from the database
+     * @param member the member
+     * @throws IOException if the journal can't be written
+     */
+    void logRemove(Member member) throws IOException {
+        log(REMOVE, memberKey(null, member));
+    }
+
+    /**
+     * Logs a member checked into, or put on the waitlist of, a class
+     * @param fc the class
+     * @param member the member
+     * @throws IOException if the journal can't be written
+     */
+    void logCheckIn(FitnessClass fc, Member member) throws IOException {
+        log(CHECK_IN, memberKey(fc, member));
+    }
+
+    /**
+     * Logs a member dropped from a class or its waitlist
+     * @param fc the class
+     * @param member the member
+     * @throws IOException if the journal can't be written
+     */
+    void logCheckOut(FitnessClass fc, Member member) throws IOException {
+        log(CHECK_OUT, memberKey(fc, member));
+    }
+
+    /**
+     * Logs a member's guest checked into a class, using a guest pass
+     * @param fc the class
+     * @param member the member who brought the guest
+     * @throws IOException if the journal can't be written
+     */
+    void logGuestIn(FitnessClass fc, Member member) throws IOException {
+        log(GUEST_IN, memberKey(fc, member));
+    }
+
+    /**
+     * Logs a member's guest dropped from a class, giving the guest pass back
+     * @param fc the class
+     * @param member the member who brought the guest
+     * @throws IOException if the journal can't be written
+     */
+    void logGuestOut(FitnessClass fc, Member member) throws IOException {
+        log(GUEST_OUT, memberKey(fc, member));
+    }
+
+    /**
+     * Logs members whose membership expired being dropped from their classes
+     * @param from the first expiration date of the members dropped
+     * @param to the last expiration date of the members dropped
+     * @throws IOException if the journal can't be written
+     */
+    void logSweep(Date from, Date to) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(Integer.BYTES * 2);
+        payload.putInt(from.pack());
+        payload.putInt(to.pack());
+        log(SWEEP, payload);
+    }
+
+    /**
+     * Builds the payload naming a class and a member
+     * @param fc the class, null for no class
+     * @param member the member
+     * @return the class's ordinals, then the member's names and birthday
+     */
+    private static ByteBuffer memberKey(FitnessClass fc, Member member){
+        byte[] fname = member.getFname().getBytes(StandardCharsets.UTF_8);
+        byte[] lname = member.getLname().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(fname.length + lname.length + RECORD_BYTES);
+        if (fc != null){
+            payload.put((byte) fc.getClassName().ordinal());
+            payload.put((byte) fc.getInstructor().ordinal());
+            payload.put((byte) fc.getLocation().ordinal());
+        }
+        putBytes(payload, fname);
+        putBytes(payload, lname);
+        payload.putInt(member.getDob().pack());
+        return payload;
+    }
+
+    /**
+     * Appends a record, then forces the waiting records to disk if
+     * there are groupSize of them
+     * @param type the record type
+     * @param payload the record's payload, filled up to its position
+     * @throws IOException if the journal can't be written
+     */
+    private void log(byte type, ByteBuffer payload) throws IOException {
+        payload.flip();
+        long sequence;
+        boolean full;
+        synchronized (this.appendLock){
+            sequence = this.nextSequence++;
+            if (this.pending.remaining() < HEADER_BYTES + payload.remaining()){
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(this.pending.capacity() * 2,
+                        this.pending.position() + HEADER_BYTES + payload.remaining()));
+                this.pending.flip();
+                this.pending = larger.put(this.pending);
+            }
+            int start = this.pending.position();
+            this.pending.putInt(payload.remaining());
+            this.pending.putInt(0);
+            this.pending.putLong(sequence);
+            this.pending.put(type);
+            this.pending.put(payload);
+            CRC32C crc = new CRC32C();
+            crc.update(this.pending.array(), start + Integer.BYTES * 2, this.pending.position() - start - Integer.BYTES * 2);
+            this.pending.putInt(start + Integer.BYTES, (int) crc.getValue());
+            this.waiting++;
+            full = this.waiting >= this.groupSize;
+        }
+        if (full){
+            sync(sequence);
+        }
+    }
+
+    /**
+     * Forces every record logged so far to disk
+     * @throws IOException if the journal can't be written
+     */
+    void sync() throws IOException {
+        long last;
+        synchronized (this.appendLock){
+            last = this.nextSequence - 1;
+        }
+        sync(last);
+    }
+
+    /**
+     * Forces the records up to a sequence number to disk, along with
+     * every record logged before the write starts (the group)
+     * Returns at once if another thread's group already included it
+     * @param sequence sequence number of the record
+     * @throws IOException if the journal can't be written
+     */
+    private void sync(long sequence) throws IOException {
+        if (this.durable >= sequence){
+            return;
+        }
+        synchronized (this.syncLock){
+            if (this.durable >= sequence){
+                return;
+            }
+            ByteBuffer group;
+            long last;
+            synchronized (this.appendLock){
+                group = this.pending;
+                this.pending = this.spare;
+                last = this.nextSequence - 1;
+                this.waiting = 0;
+            }
+            group.flip();
+            while (group.hasRemaining()){
+                this.segment.write(group);
+            }
+            this.segment.force(false);
+            this.durable = last;
+            this.spare = group.clear();
+            if (this.segment.size() >= Constant.JOURNAL_SEGMENT_BYTES.getValue()){
+                roll(last + 1);
+            }
+        }
+    }
+
+    /**
+     * Checks if every record logged so far is on disk, ex: because the
+     * last record filled its group
+     * @return true if no record is waiting to be forced to disk, false otherwise
+     */
+    boolean synced(){
+        synchronized (this.appendLock){
+            return this.durable == this.nextSequence - 1;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last record logged
+     * @return the sequence number, 0 if nothing was ever logged
+     */
+    long lastSequence(){
+        synchronized (this.appendLock){
+            return this.nextSequence - 1;
+        }
+    }
+
+    /**
+     * Drops the records included in a snapshot just saved
+     * Forces every record to disk, starts a new segment and deletes the
+     * segments whose records are all included in the snapshot. Records
+     * logged after the snapshot was taken are kept (replay skips the
+     * ones the snapshot included)
+     * @param sequence the last record included in the snapshot
+     * @throws IOException if the journal can't be written
+     */
+    void checkpoint(long sequence) throws IOException {
+        sync();
+        synchronized (this.syncLock){
+            roll(this.durable + 1);                             //Records not written yet come after durable
+            ArrayList<Long> starts = segments();
+            for (int i = 0; i + 1 < starts.size(); i++){
+                if (starts.get(i + 1) - 1 <= sequence){         //Last record of the segment is in the snapshot
+                    Files.deleteIfExists(segmentPath(starts.get(i)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new segment
+     * Must be called holding syncLock, with every record written
+     * @param start sequence number of the first record of the segment
+     * @throws IOException if the segment can't be created
+     */
+    private void roll(long start) throws IOException {
+        if (start == this.segmentStart){
+            return;
+        }
+        this.segment.close();
+        this.segmentStart = start;
+        this.segment = FileChannel.open(segmentPath(start), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Forces every record to disk and closes the journal
+     * @throws IOException if the journal can't be written
+     */
+    void close() throws IOException {
+        sync();
+        synchronized (this.syncLock){
+            this.segment.close();
+        }
+    }
+
+    /**
+     * Finds the segments of the journal
+     * @return sequence number of the first record of each segment, oldest first
+     * @throws IOException if the directory can't be read
+     */
+    private ArrayList<Long> segments() throws IOException {
+        Path directory = this.base.toAbsolutePath().getParent();
+        String prefix = this.base.getFileName() + ".";
+        ArrayList<Long> starts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file -> file.getFileName().toString().startsWith(prefix))){     //Not a glob, the name may have a backslash in it
+            for (Path file : files){
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)){
+                    starts.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        starts.sort(null);
+        return starts;
+    }
+
+    /**
+     * Returns the path of a segment
+     * @param start sequence number of the first record of the segment
+     * @return the segment's path
+     */
+    private Path segmentPath(long start){
+        return this.base.resolveSibling(this.base.getFileName() + "." + start);
+    }
+
+    /**
+     * Reads a new member logged by logAdd
+     * @param payload the payload, at the member
+     * @return the member, with all their guest passes
+     */
+    private static Member getNewMember(ByteBuffer payload){
+        MembershipType type = MembershipType.values()[payload.get()];
+        String fname = getString(payload);
+        String lname = getString(payload);
+        Date dob = Date.intern(payload.getInt());
+        Date expire = Date.intern(payload.getInt());
+        Location location = Location.values()[payload.get()];
+        switch (type){
+            case FAMILY:
+                return new Family(fname, lname, dob, expire, location);
+            case PREMIUM:
+                return new Premium(fname, lname, dob, expire, location);
+            default:
+                return new Member(fname, lname, dob, expire, location);
+        }
+    }
+
+    /**
+     * Writes bytes with their length first
+     * @param payload where the bytes are written
+     * @param bytes the bytes, at most 65535 of them
+     */
+    private static void putBytes(ByteBuffer payload, byte[] bytes){
+        payload.putShort((short) bytes.length);
+        payload.put(bytes);
+    }
+
+    /**
+     * Reads a string written with its length first
+     * @param payload the payload, at the string
+     * @return the string
+     */
+    private static String getString(ByteBuffer payload){
+        byte[] bytes = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
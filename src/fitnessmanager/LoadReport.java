@@ -0,0 +1,75 @@
+package fitnessmanager;
+
+import java.util.ArrayList;
+
+/**
+ * LoadReport is what happened while loading a file
+ * Stores the following data:
+ *  - Number of lines (or snapshot members) loaded
+ *  - Each line that couldn't be loaded: its line number and why,
+ *      or for a snapshot, each roster entry that couldn't be restored
+ * Lines that can't be loaded are collected here and the rest of the
+ * file is still loaded, instead of stopping at the first bad line
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class LoadReport {
+    private int loaded;
+    private final ArrayList<String> errors;     //"line n: reason", in line order, or just the reason
+
+    /**
+     * Creates an empty report
+     */
+    LoadReport(){
+        this.errors = new ArrayList<>();
+    }
+
+    /**
+     * Counts a loaded line
+     */
+    void addLoaded(){
+        this.loaded++;
+    }
+
+    /**
+     * Counts several loaded lines or members
+     * @param count number of lines or members loaded
+     */
+    void addLoaded(int count){
+        this.loaded += count;
+    }
+
+    /**
+     * Records a line that couldn't be loaded
+     * @param line the line number, starting at 1
+     * @param reason why the line couldn't be loaded
+     */
+    void addError(long line, String reason){
+        this.errors.add("line " + line + ": " + reason);
+    }
+
+    /**
+     * Records something that couldn't be loaded that isn't a line
+     * of a file, ex: a roster entry of a snapshot
+     * @param reason what couldn't be loaded, and why
+     */
+    void addError(String reason){
+        this.errors.add(reason);
+    }
+
+    /**
+     * Getter method for the number of lines loaded
+     * @return number of lines loaded
+     */
+    int getLoaded(){
+        return this.loaded;
+    }
+
+    /**
+     * Getter method for the lines that couldn't be loaded
+     * @return "line n: reason" for each line that couldn't be loaded, in line order,
+     *         or the reason alone for what isn't a line
+     */
+    ArrayList<String> getErrors(){
+        return this.errors;
+    }
+}
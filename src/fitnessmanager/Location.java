@@ -15,6 +15,8 @@ public enum Location {
     PISCATAWAY("08854", "MIDDLESEX"),
     SOMERVILLE("08876", "SOMERSET");
 
+    private static final EnumCodec<Location> CODEC = new EnumCodec<>(values());   //Looks constants up by name
+
     private final String zipCode;
     private final String county;
 
@@ -46,17 +48,13 @@ public enum Location {
 
     /**
      * Method takes in location name and returns a location enum
+     * Looks the name up in a table built once, without creating any objects
      * @param str, string that represents location name
      * @return location string was referring to if it exists,
      *         null otherwise
      */
-    public static Location stringToLocation(String str){
-        for (Location location: Location.values()){
-            if (str.equalsIgnoreCase(location.name())){
-                return location;
-            }
-        }
-        return null;
+    public static Location stringToLocation(CharSequence str){
+        return CODEC.lookup(str);
     }
 
 
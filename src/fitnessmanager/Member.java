@@ -27,8 +27,8 @@ public class Member implements Comparable<Member>{
     public Member(String fname, String lname, String dob, String expire, String location){
         this.fname = fname;
         this.lname = lname;
-        this.dob = new Date(dob);
-        this.expire = new Date(expire);
+        this.dob = Date.of(dob);
+        this.expire = Date.of(expire);
         this.location = Location.stringToLocation(location);
     }
 
@@ -43,11 +43,27 @@ public class Member implements Comparable<Member>{
     public Member(String fname, String lname, String dob, Date expire, String location){
         this.fname = fname;
         this.lname = lname;
-        this.dob = new Date(dob);
+        this.dob = Date.of(dob);
         this.expire = expire;
         this.location = Location.stringToLocation(location);
     }
 
+    /**
+     * Creates a standard member object from already parsed fields
+     * @param fname first name of the member
+     * @param lname last name of the member
+     * @param dob birthday of the member
+     * @param expire expiration date of the member's gym membership
+     * @param location the gym the member belongs to
+     */
+    public Member(String fname, String lname, Date dob, Date expire, Location location){
+        this.fname = fname;
+        this.lname = lname;
+        this.dob = dob;
+        this.expire = expire;
+        this.location = location;
+    }
+
     /**
      * Creates a standard member object
      * @param fname first name of the member
@@ -57,7 +73,7 @@ public class Member implements Comparable<Member>{
     public Member(String fname, String lname, String dob){
         this.fname = fname;
         this.lname = lname;
-        this.dob = new Date(dob);
+        this.dob = Date.of(dob);
     }
 
     /**
@@ -88,7 +104,7 @@ public class Member implements Comparable<Member>{
      */
     @Override
     public String toString(){
-        if (this.expire.compareTo(new Date()) < 0){                  //Check if membership expiration date has passed
+        if (this.expire.compareTo(GymClock.get().today()) < 0){     //Check if membership expiration date has passed
             return this.fname + " " + this.lname + ", DOB: " + this.dob.toString()
                               +  ", Membership expired " + this.expire.toString()
                               +  ", Location: " + this.location.toString();
@@ -121,6 +137,37 @@ public class Member implements Comparable<Member>{
         return false;
     }
 
+    /**
+     * Returns hash code of this member
+     * Agrees with equals: names are hashed case-insensitively
+     * (each character folded the same way equalsIgnoreCase compares it)
+     * and combined with the hash of the birthday
+     * @return hash code of this member
+     */
+    @Override
+    public int hashCode(){
+        int hash = foldedHash(this.fname);
+        hash = 31 * hash + foldedHash(this.lname);
+        if (this.dob != null){
+            hash = 31 * hash + this.dob.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes a name without regard to case, without allocating
+     * a lowercase copy of the name
+     * @param name the name to hash
+     * @return case-insensitive hash of the name
+     */
+    private static int foldedHash(String name){
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++){
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash;
+    }
+
     /**
      * Compares the name of this member to another
      * Format: m1.compareTo(m2)
@@ -1,16 +1,76 @@
 package fitnessmanager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * MemberDatabase is a class to store and sort gym members
  * Stores the following data:
- *  - Member list
- *  - Size of list
+ *  - Member list, in the order members were added, where removed
+ *      members leave an empty slot (tombstone) until the list is compacted
+ *  - Number of slots used in the list and number of members
+ *  - Hash index from member (name and birthday) to its slot in the list
+ *  - Sorted index of members for each SortCategory, built the first
+ *      time members are printed in that category, split into one shard
+ *      per Location so each shard only holds the members of one gym
+ *  - Name index of members by the start of their last or first name,
+ *      built the first time members are searched by name
+ *  - Expiration index from each expiration date to the members whose
+ *      membership expires that day, always kept up to date
+ * Safe to share between threads (e.g. several front desks):
+ *  - findMember and isEmpty take no locks
+ *  - add and remove take the write lock of their member's stripe, so
+ *      writes for the same member are serialized and writes for members
+ *      in different stripes run in parallel, including their O(log n)
+ *      sorted, name and expiration index updates
+ *  - appends to, and tombstones in, the member list are serialized by
+ *      one monitor, held only for that O(1) step (and for the occasional
+ *      grow or compact)
+ *  - print, printWithFees and sortedPrint take no locks and are weakly
+ *      consistent: they see every member that was in the database for
+ *      the whole print, and may or may not see members added or
+ *      removed during it
  * @author Arya Shetty, John Greaney-Cheng
  */
-public class MemberDatabase {
-    private Member[] mlist;
-    private int size;               //Number of members in database
+public class MemberDatabase implements MemberStore {
+    private volatile Slot[] mlist;          //Member list, each member in its slot
+    private volatile int size;              //Number of slots used in mlist, including tombstones
+    private volatile int count;             //Number of members in database
+    private volatile ConcurrentHashMap<Member, Slot> index;                   //Keyed like Member.equals, replaced only while empty
+    private final AtomicReferenceArray<List<ConcurrentSkipListMap<Member, Boolean>>> sortedIndexes;   //By SortCategory ordinal, shard by Location ordinal
+    private final ConcurrentSkipListMap<Integer, Set<Member>> expirations;    //Packed expiration date -> members
+    private volatile NameIndex nameIndex;   //Null until the first search by name
+    private final Object listLock;          //Guards changes to mlist, size, count and slot positions
+    private final ReentrantLock[] writeLocks;   //By member hash; add/remove hold one, batches and index builds hold all
 
+    /**
+     * Slot holds a stored member and its current position in the member list
+     */
+    private static class Slot {
+        private final Member member;
+        private int position;               //Guarded by listLock
+
+        /**
+         * Creates a slot for a member
+         * @param member the stored member
+         */
+        Slot(Member member) {
+            this.member = member;
+        }
+    }
 
     /**
      * Creates a member database object
@@ -18,122 +78,518 @@ public class MemberDatabase {
      */
     public MemberDatabase() {
         this.size = 0;
-        this.mlist = new Member[Constant.STARTING_CAPACITY.getValue()];
+        this.count = 0;
+        this.mlist = new Slot[Constant.STARTING_CAPACITY.getValue()];
+        this.index = new ConcurrentHashMap<>();
+        this.sortedIndexes = new AtomicReferenceArray<>(SortCategory.values().length);
+        this.expirations = new ConcurrentSkipListMap<>();
+        this.listLock = new Object();
+        this.writeLocks = new ReentrantLock[Constant.WRITE_LOCK_STRIPES.getValue()];
+        for (int i = 0; i < this.writeLocks.length; i++) {
+            this.writeLocks[i] = new ReentrantLock();
+        }
     }
 
     /**
-     * Checks if member is stored in database
-     * Goes through database list to see if any stored member is
-     * equal to given member
-     * @param member the member to find in the database
-     * @return the index of the member in the list,
-     *         -1 if the member is not in the list
+     * Returns the write lock of the stripe a member is in
+     * Equal members always get the same lock
+     * @param member the member about to be added or removed
+     * @return the member's write lock
      */
-    private int find(Member member) {
-        for (int i = 0; i < size; i++) {
-            if (member.equals(this.mlist[i])) {
-                return i;
-            }
+    private ReentrantLock writeLock(Member member) {
+        int hash = member.hashCode();
+        hash = hash ^ (hash >>> 16);                        //Mixes the high bits in, like HashMap
+        return this.writeLocks[(hash & Integer.MAX_VALUE) % this.writeLocks.length];
+    }
+
+    /**
+     * Takes every write lock, in order, so no member is added or removed
+     * until unlockAll is called
+     */
+    private void lockAll() {
+        for (ReentrantLock lock : this.writeLocks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Releases every write lock taken by lockAll
+     */
+    private void unlockAll() {
+        for (int i = this.writeLocks.length - 1; i >= 0; i--) {
+            this.writeLocks[i].unlock();
         }
-        return -1;
     }
 
     /**
-     * Increases the size of the member list by four to store new members
+     * Increases the size of the member list to store new members
+     * Capacity doubles (by at least four), so adding n members copies
+     * the list O(log n) times instead of once every four adds.
      * Creates a new Member array with the increased capacity
      * then stores the old members in the list, and replaces the
      * old database list with the new one
+     * Must be called holding listLock
      */
     private void grow() {
-        int newLength = Constant.INCREASE_CAPACITY.getValue() + this.size;
-        Member[] newList = new Member[newLength];
+        int newLength = Math.max(Constant.INCREASE_CAPACITY.getValue(), this.size) + this.size;
+        Slot[] newList = new Slot[newLength];
         for (int i = 0; i < this.mlist.length; i++) {         //Enters old member info into new larger list
             newList[i] = this.mlist[i];
         }
         this.mlist = newList;
     }
 
+    /**
+     * Makes room in the member list for more members, so adding them
+     * doesn't grow the list again and again
+     * If the database is empty, the hash index is also replaced by one
+     * sized for the members, so it doesn't resize while they're added
+     * @param members number of members about to be added
+     */
+    @Override
+    public void reserve(int members) {
+        lockAll();
+        try {
+            synchronized (this.listLock) {
+                if (this.size + members > this.mlist.length) {
+                    this.mlist = Arrays.copyOf(this.mlist, this.size + members);
+                }
+            }
+            if (this.index.isEmpty()) {                     //No add or remove runs while every write lock is held
+                this.index = new ConcurrentHashMap<>(members);
+            }
+        }
+        finally {
+            unlockAll();
+        }
+    }
+
     /**
      * Tries to find member in database equal to input parameter
-     * Goes through database list to see if any stored member is
-     * equal to given member
+     * Looks the member up in the hash index without locking, so the
+     * cost does not depend on how many members are stored
      * @param member the member to find in the database
      * @return the member stored in the database that's equal to
      *              the input parameter
      *         null if there is no such member in the database
      */
+    @Override
     public Member findMember(Member member){
-        if(find(member) != -1){
-            return mlist[find(member)];
+        Slot slot = this.index.get(member);
+        if (slot != null) {
+            return slot.member;
         }
         return null;
     }
 
     /**
      * Adds a member into the database
-     * First check that the member is not already in the list,
-     * then add the member to the end of the list.
-     * If the list is at full capacity, grow list by 4
+     * Holding the member's write lock, claims the member's slot in the
+     * hash index (so a second add of the same member fails), then adds
+     * the member to the end of the list, to the expiration index
+     * and to the name index and every sorted index built so far.
+     * Only the append holds listLock; the index updates don't.
+     * If the list is at full capacity, grow list
      * @param member the member to add in the list
      * @return true if member was added, false if not added
      */
+    @Override
     public boolean add(Member member) {
-        if (find(member) == -1) {
-            this.mlist[this.size] = member;
-            this.size = this.size + 1;
-            if (this.size == this.mlist.length) {             //Checks if mlist is full, if so will automatically use grow()
-                grow();
+        ReentrantLock lock = writeLock(member);
+        lock.lock();
+        try {
+            Slot slot = new Slot(member);
+            if (this.index.putIfAbsent(member, slot) != null) {
+                return false;
+            }
+            synchronized (this.listLock) {
+                if (this.size == this.mlist.length) {         //Checks if mlist is full, if so will automatically use grow()
+                    grow();
+                }
+                slot.position = this.size;
+                this.mlist[this.size] = slot;
+                this.size = this.size + 1;
+                this.count = this.count + 1;
+            }
+            for (int i = 0; i < this.sortedIndexes.length(); i++) {
+                List<ConcurrentSkipListMap<Member, Boolean>> shards = this.sortedIndexes.get(i);
+                if (shards != null) {
+                    shards.get(member.getLocation().ordinal()).put(member, Boolean.TRUE);
+                }
+            }
+            NameIndex names = this.nameIndex;
+            if (names != null) {
+                names.add(member);
+            }
+            if (member.getExpire() != null) {
+                addExpiration(member);
             }
             return true;
         }
-        return false;
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds many members into the database at once, e.g. when restoring
+     * a snapshot or loading a chunk of a member list
+     * Holds every write lock for the whole batch instead of taking
+     * a lock per member, and adds the members expiring on the same day
+     * to the expiration index together, so each date is looked up once
+     * per batch instead of once per member.
+     * Members already in the database are not added; their entries in
+     * the array are replaced by the stored member
+     * @param members the members to add, in order
+     * @return number of members added
+     */
+    @Override
+    public int addAll(Member[] members) {
+        HashMap<Integer, ArrayList<Member>> expiring = new HashMap<>();
+        int added = 0;
+        lockAll();
+        try {
+            reserve(members.length);
+            synchronized (this.listLock) {
+                int size = this.size;
+                for (int i = 0; i < members.length; i++) {
+                    Member member = members[i];
+                    Slot slot = new Slot(member);
+                    Slot stored = this.index.putIfAbsent(member, slot);
+                    if (stored != null) {
+                        members[i] = stored.member;
+                        continue;
+                    }
+                    slot.position = size;
+                    this.mlist[size++] = slot;
+                    added++;
+                    for (int j = 0; j < this.sortedIndexes.length(); j++) {
+                        List<ConcurrentSkipListMap<Member, Boolean>> shards = this.sortedIndexes.get(j);
+                        if (shards != null) {
+                            shards.get(member.getLocation().ordinal()).put(member, Boolean.TRUE);
+                        }
+                    }
+                    if (this.nameIndex != null) {
+                        this.nameIndex.add(member);
+                    }
+                    if (member.getExpire() != null) {
+                        expiring.computeIfAbsent(member.getExpire().pack(), date -> new ArrayList<>()).add(member);
+                    }
+                }
+                this.size = size;                           //Printing threads see the new slots only once they are filled
+                this.count = this.count + added;
+            }
+            for (Map.Entry<Integer, ArrayList<Member>> day : expiring.entrySet()) {
+                this.expirations.computeIfAbsent(day.getKey(), date -> ConcurrentHashMap.newKeySet(day.getValue().size()))
+                        .addAll(day.getValue());
+            }
+        }
+        finally {
+            unlockAll();
+        }
+        return added;
     }
 
     /**
      * Removes a specific member from the list
-     * First checks to see if member is in the list,
-     * if it exists removes the member and moves all members back,
-     * and reduces size by 1
+     * Holding the member's write lock, removes the member from the hash
+     * index; if it was there, empties the member's slot (leaving a tombstone),
+     * reduces count by 1, then removes the member from the expiration,
+     * name and sorted indexes. Only emptying the slot holds listLock.
+     * No other member moves, so removing is O(1). Once more than half
+     * of the used slots are tombstones the list is compacted, which is
+     * O(n) but only happens after n / 2 removes, so removes stay O(1) amortized
      * @param member the member to remove from the list
      * @return true if member was removed, false if not removed
      */
+    @Override
     public boolean remove(Member member) {
-        int index = find(member);
-        if (index != -1) {
-            for (int i = index; i < this.size; i++) {
-                this.mlist[i] = this.mlist[i + 1];
+        ReentrantLock lock = writeLock(member);
+        lock.lock();
+        try {
+            Slot slot = this.index.remove(member);
+            if (slot == null) {
+                return false;
+            }
+            synchronized (this.listLock) {
+                this.mlist[slot.position] = null;
+                this.count = this.count - 1;
+                if ((this.size - this.count) * 2 > this.size) {   //More than half the used slots are tombstones
+                    compact();
+                }
+            }
+            for (int i = 0; i < this.sortedIndexes.length(); i++) {
+                List<ConcurrentSkipListMap<Member, Boolean>> shards = this.sortedIndexes.get(i);
+                if (shards != null) {                       //Stored member, the parameter may have no location or expiration
+                    shards.get(slot.member.getLocation().ordinal()).remove(slot.member);
+                }
+            }
+            NameIndex names = this.nameIndex;
+            if (names != null) {
+                names.remove(slot.member);
+            }
+            if (slot.member.getExpire() != null) {
+                removeExpiration(slot.member);
             }
-            this.size = this.size - 1;
             return true;
         }
-        return false;
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a member to the members expiring on its expiration date
+     * Members in other stripes may be added or removed on the same date
+     * at the same time, so the date's set is changed under its monitor,
+     * and only once it is checked to still be in the expiration index
+     * (removeExpiration drops a set from the index once it is empty)
+     * @param member the member being added
+     */
+    private void addExpiration(Member member) {
+        int date = member.getExpire().pack();
+        while (true) {
+            Set<Member> members = this.expirations.computeIfAbsent(date, key -> ConcurrentHashMap.newKeySet());
+            synchronized (members) {
+                if (this.expirations.get(date) == members) {
+                    members.add(member);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a member from the members expiring on its expiration date,
+     * and drops the date once no member expires on it
+     * @param member the stored member being removed
+     */
+    private void removeExpiration(Member member) {
+        int date = member.getExpire().pack();
+        Set<Member> members = this.expirations.get(date);
+        if (members == null) {
+            return;
+        }
+        synchronized (members) {
+            members.remove(member);
+            if (members.isEmpty()) {
+                this.expirations.remove(date, members);
+            }
+        }
+    }
+
+    /**
+     * Removes the tombstones from the member list
+     * Copies the members, in the same order, into a new list twice as long
+     * as the number of members (at least the starting capacity) and
+     * updates their stored positions. Printing threads still walking the
+     * old list are not affected, since it is left unchanged
+     * Must be called holding listLock
+     */
+    private void compact() {
+        Slot[] newList = new Slot[Math.max(Constant.STARTING_CAPACITY.getValue(), this.count * 2)];
+        int newSize = 0;
+        for (int i = 0; i < this.size; i++) {
+            Slot slot = this.mlist[i];
+            if (slot != null) {
+                slot.position = newSize;
+                newList[newSize++] = slot;
+            }
+        }
+        this.mlist = newList;
+        this.size = newSize;
+    }
+
+    /**
+     * Returns the members whose membership expires between two dates
+     * Looks the dates up in the expiration index, so the cost is
+     * O(log n) plus the number of members returned, instead of checking
+     * every member
+     * @param from the first expiration date to include
+     * @param to the last expiration date to include
+     * @return members expiring from the first date to the last date,
+     *              ordered by expiration date (members expiring the same
+     *              day are in no particular order)
+     */
+    @Override
+    public ArrayList<Member> expiringBetween(Date from, Date to){
+        ArrayList<Member> expiring = new ArrayList<>();
+        if (from.compareTo(to) > 0){
+            return expiring;
+        }
+        for (Set<Member> members : this.expirations.subMap(from.pack(), true, to.pack(), true).values()){
+            expiring.addAll(members);
+        }
+        return expiring;
+    }
+
+    /**
+     * Returns the earliest expiration date in the expiration index
+     * @return the earliest expiration date of any member,
+     *         null if no member has been added
+     */
+    @Override
+    public Date earliestExpiration(){
+        Map.Entry<Integer, Set<Member>> first = this.expirations.firstEntry();
+        return first == null ? null : Date.intern(first.getKey());
+    }
+
+    /**
+     * Finds members whose last or first name starts with a prefix,
+     * e.g. as a name is typed in at the front desk
+     * Members matching by last name come first, ordered by last name then
+     * first name, followed by members only matching by first name.
+     * The first search builds the name index; after that add and remove
+     * keep it up to date, and each search is O(log n) plus the number
+     * of members returned
+     * @param prefix the start of the name, not case-sensitive
+     * @param limit the most members to return
+     * @return the matching members, at most limit of them
+     */
+    @Override
+    public ArrayList<Member> searchByPrefix(String prefix, int limit){
+        NameIndex names = this.nameIndex;
+        if (names == null){
+            lockAll();
+            try {
+                names = this.nameIndex;
+                if (names == null){
+                    Member[] members = new Member[this.count];
+                    int found = 0;
+                    for (int i = 0; i < this.size; i++){
+                        if (this.mlist[i] != null){
+                            members[found++] = this.mlist[i].member;
+                        }
+                    }
+                    names = new NameIndex(members, found);
+                    this.nameIndex = names;
+                }
+            }
+            finally {
+                unlockAll();
+            }
+        }
+        return names.search(prefix, limit);
+    }
+
+    /**
+     * Returns the members in this database
+     * Weakly consistent like print: members added or removed while this
+     * runs may or may not be included
+     * @return the members, in the order they were added
+     */
+    @Override
+    public ArrayList<Member> members(){
+        int size = this.size;
+        Slot[] list = this.mlist;
+        ArrayList<Member> members = new ArrayList<>(this.count);
+        for (int i = 0; i < size && i < list.length; i++) {
+            Slot slot = list[i];
+            if (slot != null) {
+                members.add(slot.member);
+            }
+        }
+        return members;
     }
 
     /**
      * Checks if this database is empty
      * @return true if this database is empty, false otherwise
      */
+    @Override
     public boolean isEmpty(){
-        return this.size == 0;
+        return this.count == 0;
     }
 
     /**
      * Prints out unsorted list of members
      */
+    @Override
     public void print() {
-        for (int i = 0; i < this.size; i++) {
-            System.out.println(this.mlist[i].toString());
+        int size = this.size;
+        Slot[] list = this.mlist;
+        for (int i = 0; i < size && i < list.length; i++) {
+            Slot slot = list[i];
+            if (slot != null) {
+                Member member = slot.member;
+                System.out.println(member.toString());
+            }
         }
     }
 
     /**
      * Prints out unsorted list of members with their fees and guest passes
      */
+    @Override
     public void printWithFees(){
-        for (int i = 0; i < this.size; i++) {
-            System.out.println(this.mlist[i].toString() + ", Membership Fee: $"
-                    + this.mlist[i].membershipFee());
+        int size = this.size;
+        Slot[] list = this.mlist;
+        for (int i = 0; i < size && i < list.length; i++) {
+            Slot slot = list[i];
+            if (slot != null) {
+                Member member = slot.member;
+                System.out.println(member.toString() + ", Membership Fee: $"
+                        + member.membershipFee());
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap bytes used per member, including the Member,
+     * Date and name objects, the hash, expiration, name and sorted indexes, and the unused capacity
+     * of the member list
+     * @return estimated bytes per member, 0 if the database is empty
+     */
+    public double bytesPerMember(){
+        int size = this.size;
+        int count = this.count;
+        Slot[] list = this.mlist;
+        if (count == 0){
+            return 0;
+        }
+        int tableLength = 1;
+        while (tableLength * 3 / 4 < count){                   //ConcurrentHashMap resizes past 0.75 load
+            tableLength = tableLength * 2;
+        }
+        int builtIndexes = 0;
+        for (int i = 0; i < this.sortedIndexes.length(); i++){
+            if (this.sortedIndexes.get(i) != null){
+                builtIndexes++;
+            }
+        }
+        long bytes = MemoryEstimate.array(MemoryEstimate.REFERENCE, list.length)
+                + MemoryEstimate.array(MemoryEstimate.REFERENCE, tableLength);
+        for (int i = 0; i < size && i < list.length; i++){
+            if (list[i] == null){
+                continue;
+            }
+            Member member = list[i].member;
+            if (member instanceof Family){
+                bytes += MemoryEstimate.object(5 * MemoryEstimate.REFERENCE + 4);
+            }
+            else {
+                bytes += MemoryEstimate.object(5 * MemoryEstimate.REFERENCE);
+            }
+            if (!member.getDob().isInterned()){                                     //Interned dates are shared
+                bytes += MemoryEstimate.object(4);
+            }
+            if (!member.getExpire().isInterned()){
+                bytes += MemoryEstimate.object(4);
+            }
+            bytes += MemoryEstimate.string(member.getFname()) + MemoryEstimate.string(member.getLname());
+            bytes += MemoryEstimate.object(4 + 3 * MemoryEstimate.REFERENCE);       //ConcurrentHashMap node
+            bytes += MemoryEstimate.object(MemoryEstimate.REFERENCE + 4);           //Slot
+            bytes += MemoryEstimate.object(4 + 3 * MemoryEstimate.REFERENCE);       //Expiration index set node
+            bytes += builtIndexes * (MemoryEstimate.object(3 * MemoryEstimate.REFERENCE)        //Skip list node,
+                    + MemoryEstimate.object(3 * MemoryEstimate.REFERENCE) / 3);                 //and its share of index nodes
+            if (this.nameIndex != null){                                            //Two keys (two-byte chars) and skip list nodes
+                int keyLength = member.getFname().length() + member.getLname().length() + 4;
+                bytes += 2 * (MemoryEstimate.object(MemoryEstimate.REFERENCE + 4 + 1 + 1) + MemoryEstimate.array(2, keyLength)
+                        + MemoryEstimate.object(3 * MemoryEstimate.REFERENCE)
+                        + MemoryEstimate.object(3 * MemoryEstimate.REFERENCE) / 3);
+            }
         }
+        return bytes / (double) count;
     }
 
     /**
@@ -144,127 +600,185 @@ public class MemberDatabase {
      *      Ascending order for both county and zipcode.
      *  - expiration date of their membership
      *  - member last name then first name (alphabetically)
-     * Sorts the list using a quicksort method,
-     * which compares the location stored in the member class,
-     * Then prints out list
+     * Walks the sorted index kept for the category (see MemberOrder),
+     * so the order of the member list, which print uses, is left unchanged.
+     * The index is split into one shard per Location:
+     *  - by county, each shard is already in name order, so the shards
+     *      are printed one after the other in county and zipcode order
+     *  - by name or expiration date, the shards are merged as they are
+     *      printed, comparing only the next member of each shard
+     * The first time a category is printed its index is built,
+     * see buildSortedIndex; after that add and remove keep it up to date
      * @param category the category to sort members by
      */
+    @Override
     public void sortedPrint(SortCategory category) {
-        quickSort(0, this.size - 1, category);
-        print();
+        List<ConcurrentSkipListMap<Member, Boolean>> shards = sortedIndex(category);
+        if (category == SortCategory.COUNTY) {
+            for (Location location : MemberSorter.countyOrder()) {
+                for (Member member : shards.get(location.ordinal()).keySet()) {
+                    System.out.println(member.toString());
+                }
+            }
+            return;
+        }
+        MemberOrder order = MemberOrder.of(category);
+        PriorityQueue<ShardCursor> next = new PriorityQueue<>(shards.size(),
+                (c1, c2) -> order.compare(c1.member, c2.member));
+        for (ConcurrentSkipListMap<Member, Boolean> shard : shards) {
+            ShardCursor cursor = new ShardCursor(shard.keySet().iterator());
+            if (cursor.advance()) {
+                next.add(cursor);
+            }
+        }
+        while (!next.isEmpty()) {
+            ShardCursor cursor = next.poll();
+            System.out.println(cursor.member.toString());
+            if (cursor.advance()) {
+                next.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * Prints out sorted list of the members of one gym location
+     * Could be ordered by expiration date of their membership or
+     * member last name then first name (alphabetically); by county it is
+     * in name order, as every member has the same county and zipcode.
+     * Only walks the shard of the sorted index holding that location
+     * @param category the category to sort members by
+     * @param location the gym location to print the members of
+     */
+    public void sortedPrint(SortCategory category, Location location) {
+        for (Member member : sortedIndex(category).get(location.ordinal()).keySet()) {
+            System.out.println(member.toString());
+        }
     }
 
     /**
-     * In-place sorting algorithm: QuickSort
-     * Helps sort based on
-     *  - county and zip code
-     *  - membership expiration date
-     *  - name of members
-     * First checks if list can be partitioned further,
-     * then runs a helper method partition to help sort,
-     * then calls itself recursively two times,
-     * for the sublist that is greater than
-     * and the sublist that is less than the pivot member
-     * @param low, the lower bound of the list being sorted
-     * @param high, the upper bound of the list being sorted
-     * @param category, the category the list is being sorted by
+     * Returns the sorted index of a category, building it if needed
+     * By county the shards use the name index: every member of a shard
+     * has the same county and zipcode, so county order is name order
+     * @param category the category to sort members by
+     * @return the shards of the index, by Location ordinal
      */
-    private void quickSort(int low, int high, SortCategory category){
-        if (low < high) {
-            int pivot = partition(low, high, category);
-            quickSort(low, pivot - 1, category);
-            quickSort(pivot + 1, high, category);
+    private List<ConcurrentSkipListMap<Member, Boolean>> sortedIndex(SortCategory category) {
+        if (category == SortCategory.COUNTY) {
+            category = SortCategory.NAME;
+        }
+        List<ConcurrentSkipListMap<Member, Boolean>> shards = this.sortedIndexes.get(category.ordinal());
+        if (shards == null) {
+            shards = buildSortedIndex(category);
         }
+        return shards;
     }
 
     /**
-     * A helper method for the QuickSort method
-     * Partitions list around pivot element (first element in list)
-     * i and j approach from left and right end of list respectively
-     * If i and j are found such that:
-     *  - ith element should be after pivot element
-     *  - jth element should be before pivot element
-     *  - i < j
-     * Then swap ith and jth elements
-     * When i >= j, swap jth element with pivot element.
-     * List is now partitioned around pivot element.
-     * @param low, the lower bound of the list being partitioned
-     * @param high, the upper bound of the list being partitioned
-     * @param category, the category the list is being sorted by
-     * @return the index of the pivot member
+     * Builds the sorted index of a category, unless another thread
+     * already has
+     * Holds every write lock, so no member is added or removed
+     * while the list is sorted. Splits the member list by location,
+     * then sorts each shard with MemberSorter and builds its skip list
+     * from the sorted members, see buildShard.
+     * At or above Constant.PARALLEL_SORT_THRESHOLD members (and with more
+     * than one core) the shards are built in parallel on the common ForkJoinPool
+     * @param category the category to build the index for, NAME or EXPIRATION_DATE
+     * @return the shards of the index, by Location ordinal
      */
-    private int partition(int low, int high, SortCategory category) {
-        int i = low;
-        int j = high + 1;
-        Member swap;
-        while (true){
-            while (isBefore(this.mlist[++i], this.mlist[low], category)){
-                if (i == high){
-                    break;
+    private List<ConcurrentSkipListMap<Member, Boolean>> buildSortedIndex(SortCategory category) {
+        lockAll();
+        try {
+            List<ConcurrentSkipListMap<Member, Boolean>> shards = this.sortedIndexes.get(category.ordinal());
+            if (shards != null) {
+                return shards;
+            }
+            Location[] locations = Location.values();
+            int[] shardSizes = new int[locations.length];
+            for (int i = 0; i < this.size; i++) {
+                if (this.mlist[i] != null) {
+                    shardSizes[this.mlist[i].member.getLocation().ordinal()]++;
                 }
             }
-            while (isBefore(this.mlist[low], this.mlist[--j], category)){
-                if (j == low){
-                    break;
+            Member[][] shardMembers = new Member[locations.length][];
+            for (int shard = 0; shard < locations.length; shard++) {
+                shardMembers[shard] = new Member[shardSizes[shard]];
+                shardSizes[shard] = 0;
+            }
+            for (int i = 0; i < this.size; i++) {
+                if (this.mlist[i] != null) {
+                    Member member = this.mlist[i].member;
+                    int shard = member.getLocation().ordinal();
+                    shardMembers[shard][shardSizes[shard]++] = member;
                 }
             }
-            if (i >= j){
-                break;
+            List<ConcurrentSkipListMap<Member, Boolean>> built = new ArrayList<>(locations.length);
+            if (this.count >= Constant.PARALLEL_SORT_THRESHOLD.getValue()
+                    && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                List<ForkJoinTask<ConcurrentSkipListMap<Member, Boolean>>> tasks = new ArrayList<>(locations.length);
+                for (Member[] members : shardMembers) {
+                    SortCategory shardCategory = category;
+                    tasks.add(ForkJoinPool.commonPool().submit(() -> buildShard(members, shardCategory)));
+                }
+                for (ForkJoinTask<ConcurrentSkipListMap<Member, Boolean>> task : tasks) {
+                    built.add(task.join());
+                }
             }
-            swap = this.mlist[i];
-            this.mlist[i] = this.mlist[j];
-            this.mlist[j] = swap;
+            else {
+                for (Member[] members : shardMembers) {
+                    built.add(buildShard(members, category));
+                }
+            }
+            this.sortedIndexes.set(category.ordinal(), built);
+            return built;
+        }
+        finally {
+            unlockAll();
         }
-        swap = this.mlist[low];
-        this.mlist[low] = this.mlist[j];
-        this.mlist[j] = swap;
-        return j;
     }
 
     /**
-     * A helper method for the Partition method for QuickSort
-     * Checks if Member m1 is before Member m2 depending on
-     * category members are being sorted by.
-     * Potential categories include:
-     *  - county and zip code
-     *  - membership expiration date
-     *  - name of members
-     * All categories are sorted in ascending order
-     * If invalid category (not in SortCategory) is given, return true
-     * @param m1, the member that should come before
-     * @param m2, the member that should come after
-     * @param category, the category the members are being compared in
-     * @return true if m1 should be before or in the same place as m2,
-     *         false otherwise
+     * Builds one shard of a sorted index
+     * The members are sorted, put in a TreeMap in that order, and the
+     * skip list is built from the TreeMap in linear time, same as NameIndex
+     * @param members the members of the shard
+     * @param category the category to sort members by
+     * @return the sorted shard
      */
-    private boolean isBefore(Member m1, Member m2, SortCategory category){
-        switch (category) {
-            case COUNTY:
-                if (m1.getLocation().getCounty().compareTo(m2.getLocation().getCounty()) < 0){
-                    return true;
-                }
-                if (m1.getLocation().getCounty().compareTo(m2.getLocation().getCounty()) > 0){
-                    return false;
-                }
-                if (m1.getLocation().getZipCode().compareTo(m2.getLocation().getZipCode()) <= 0){
-                    return true;
-                }
-                return false;
+    private static ConcurrentSkipListMap<Member, Boolean> buildShard(Member[] members, SortCategory category) {
+        Member[] sorted = MemberSorter.sort(members, members.length, category);
+        TreeMap<Member, Boolean> run = new TreeMap<>(MemberOrder.of(category));
+        for (Member member : sorted) {
+            run.put(member, Boolean.TRUE);
+        }
+        return new ConcurrentSkipListMap<>(run);
+    }
 
-            case EXPIRATION_DATE:
-                if (m1.getExpire().compareTo(m2.getExpire()) <= 0){
-                    return true;
-                }
-                return false;
+    /**
+     * ShardCursor is the position of a merge in one shard of a sorted index
+     * Stores the shard's iterator and the member it is at
+     */
+    private static class ShardCursor {
+        private final Iterator<Member> members;
+        private Member member;
 
-            case NAME:
-                if (m1.compareTo(m2) <= 0){
-                    return true;
-                }
-                return false;
+        /**
+         * Creates a cursor before the first member of a shard
+         * @param members iterator over the shard's members
+         */
+        ShardCursor(Iterator<Member> members) {
+            this.members = members;
+        }
 
-            default:
-                return true;
+        /**
+         * Moves the cursor to the next member of the shard
+         * @return true if there is a next member, false if the shard is done
+         */
+        boolean advance() {
+            if (!this.members.hasNext()) {
+                return false;
+            }
+            this.member = this.members.next();
+            return true;
         }
     }
 }
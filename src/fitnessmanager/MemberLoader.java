@@ -0,0 +1,255 @@
+package fitnessmanager;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * MemberLoader loads members into a database from a member list file
+ * Each line of the file is one member: first name, last name, birthday,
+ * expiration date and location, separated by spaces or tabs.
+ * The file is read in chunks of whole lines (see ChunkedReader) that are
+ * parsed in parallel. Lines are split into fields in place, in the
+ * file's memory mapping: dates and locations are read straight from the
+ * mapped bytes, and only the two names are copied out, as Strings.
+ * Each chunk's members are then added to the database together (see
+ * MemberStore.addAll), one chunk after another in file order, so the
+ * database and the output are the same however many threads parsed the file
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class MemberLoader {
+    private final MemberStore db;
+    private final PrintStream out;
+    private final boolean echo;
+    private final StringBuilder pending;                        //Output not yet printed
+
+    /**
+     * Chunk is what one chunk of the file was parsed into, with each
+     * member as printed if echoing
+     */
+    private static final class Chunk extends ParsedChunk<Member> {
+        private final ArrayList<String> printed = new ArrayList<>();
+    }
+
+    /**
+     * ByteSlice shows part of a byte buffer as text, without copying it
+     * Each byte is one character, so only ASCII text reads correctly,
+     * which is all dates and locations need. toString decodes it as UTF-8
+     */
+    private static final class ByteSlice implements CharSequence {
+        private ByteBuffer bytes;
+        private int start;
+        private int end;
+
+        /**
+         * Points this slice at part of a byte buffer
+         * @param bytes the byte buffer
+         * @param start index of the first byte
+         * @param end index after the last byte
+         * @return this slice
+         */
+        ByteSlice at(ByteBuffer bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return this.end - this.start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (this.bytes.get(this.start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            byte[] text = new byte[length()];
+            this.bytes.get(this.start, text);
+            return new String(text, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates a loader for a database
+     * @param db the database to load members into
+     * @param out where loaded members are printed
+     * @param echo true to print each loaded member, false to print nothing
+     */
+    MemberLoader(MemberStore db, PrintStream out, boolean echo){
+        this.db = db;
+        this.out = out;
+        this.echo = echo;
+        this.pending = new StringBuilder();
+    }
+
+    /**
+     * Loads the members listed in a file
+     * Makes room in the database for as many members as the file size
+     * suggests before adding any. Members already in the database, or
+     * listed twice, are added once (the database's hash index finds them)
+     * @param path the file to load
+     * @return number of lines read as members, including ones already in
+     *         the database, and the lines that couldn't be read
+     * @throws IOException if the file can't be read
+     */
+    LoadReport load(Path path) throws IOException {
+        return load(path, Constant.LOAD_CHUNK_BYTES.getValue());
+    }
+
+    /**
+     * Loads the members listed in a file, read in chunks of about a given size
+     * @param path the file to load
+     * @param chunkBytes bytes in a chunk, see ChunkedReader
+     * @return number of lines read as members, and the lines that couldn't be read
+     * @throws IOException if the file can't be read
+     */
+    LoadReport load(Path path, int chunkBytes) throws IOException {
+        this.db.reserve((int) Math.min(Integer.MAX_VALUE / 2, Files.size(path) / Constant.MEMBER_ROW_BYTES.getValue()));
+        ArrayList<Chunk> chunks = ChunkedReader.read(path, this::parse, chunkBytes);
+        LoadReport report = new LoadReport();
+        long line = 1;                                          //Line number of the chunk's first line
+        try {
+            for (Chunk chunk : chunks){
+                ArrayList<Member> members = chunk.getItems();
+                this.db.addAll(members.toArray(new Member[0]));
+                report.addLoaded(members.size());
+                if (this.echo){
+                    for (String printed : chunk.printed){
+                        print(printed);
+                    }
+                }
+                chunk.reportErrors(report, line);
+                line += chunk.getLines();
+            }
+        }
+        finally {
+            flush();
+        }
+        return report;
+    }
+
+    /**
+     * Parses the lines of one chunk of the file
+     * Only touches the chunk, so chunks can be parsed at the same time
+     * @param bytes the chunk
+     * @return the members and errors in the chunk
+     */
+    private Chunk parse(ByteBuffer bytes){
+        int length = bytes.limit();
+        Chunk chunk = new Chunk();
+        ByteSlice slice = new ByteSlice();
+        int[] fields = new int[Constant.MEMBER_FIELDS.getValue() * 2];
+        int lineStart = 0;
+        for (int i = 0; i < length; i++){
+            if (bytes.get(i) == '\n'){
+                parseLine(chunk, bytes, lineStart, i, slice, fields);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < length){                                //Last line has no line break
+            parseLine(chunk, bytes, lineStart, length, slice, fields);
+        }
+        return chunk;
+    }
+
+    /**
+     * Parses one line of the file as a member
+     * Blank lines are skipped; lines without five fields, or with a
+     * malformed date or unknown location, are kept as errors
+     * @param chunk the chunk the line is in
+     * @param bytes the chunk
+     * @param start index of the first byte of the line
+     * @param end index after the last byte of the line
+     * @param slice reused to look at one field
+     * @param fields reused for the start and end of each field
+     */
+    private void parseLine(Chunk chunk, ByteBuffer bytes, int start, int end, ByteSlice slice, int[] fields){
+        int count = 0;
+        int i = start;
+        while (i < end){
+            while (i < end && isSpace(bytes.get(i))){
+                i++;
+            }
+            if (i == end){
+                break;
+            }
+            if (count == Constant.MEMBER_FIELDS.getValue()){
+                count++;                                        //Too many fields
+                break;
+            }
+            fields[count * 2] = i;
+            while (i < end && !isSpace(bytes.get(i))){
+                i++;
+            }
+            fields[count * 2 + 1] = i;
+            count++;
+        }
+        if (count == 0){
+            chunk.skip();
+            return;
+        }
+        if (count != Constant.MEMBER_FIELDS.getValue()){
+            chunk.error(slice.at(bytes, start, end).toString().trim() + ": malformed line");
+            return;
+        }
+        String fname = slice.at(bytes, fields[0], fields[1]).toString();
+        String lname = slice.at(bytes, fields[2], fields[3]).toString();
+        Date dob = Date.parsed(Date.parsePacked(slice.at(bytes, fields[4], fields[5]), 0, fields[5] - fields[4]), slice);
+        Date expire = Date.parsed(Date.parsePacked(slice.at(bytes, fields[6], fields[7]), 0, fields[7] - fields[6]), slice);
+        if (dob == null || expire == null){
+            chunk.error(fname + " " + lname + ": malformed date");
+            return;
+        }
+        Location location = Location.stringToLocation(slice.at(bytes, fields[8], fields[9]));
+        if (location == null){
+            chunk.error(fname + " " + lname + ": invalid location");
+            return;
+        }
+        Member member = new Member(fname, lname, dob, expire, location);
+        chunk.add(member);
+        if (this.echo){
+            chunk.printed.add(member.toString());
+        }
+    }
+
+    /**
+     * Checks if a byte separates fields
+     * @param b the byte
+     * @return true for a space, tab or carriage return, false otherwise
+     */
+    private static boolean isSpace(byte b){
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Prints a line, collecting lines so they're printed in large writes
+     * @param line the line to print
+     */
+    private void print(String line){
+        this.pending.append(line).append(System.lineSeparator());
+        if (this.pending.length() >= Constant.OUTPUT_BUFFER_CHARS.getValue()){
+            flush();
+        }
+    }
+
+    /**
+     * Prints every collected line
+     */
+    private void flush(){
+        this.out.print(this.pending);
+        this.pending.setLength(0);
+    }
+}
@@ -0,0 +1,81 @@
+package fitnessmanager;
+
+import java.util.Comparator;
+
+/**
+ * MemberOrder compares members in the order of a SortCategory
+ * Orderings are:
+ *  - COUNTY: county their gym is in (alphabetically), then the zipcode
+ *      of the gym location, then name
+ *  - EXPIRATION_DATE: expiration date of their membership, then name
+ *  - NAME: member last name then first name (alphabetically),
+ *      then birthday
+ * All categories are in ascending order and names are not case-sensitive.
+ * Every ordering ends with name and birthday, so two members only compare
+ * as equal if Member.equals says they are equal.
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class MemberOrder implements Comparator<Member> {
+    private static final MemberOrder COUNTY = new MemberOrder(SortCategory.COUNTY);
+    private static final MemberOrder EXPIRATION_DATE = new MemberOrder(SortCategory.EXPIRATION_DATE);
+    private static final MemberOrder NAME = new MemberOrder(SortCategory.NAME);
+
+    private final SortCategory category;
+
+    /**
+     * Creates a MemberOrder for a category
+     * @param category the category members are ordered by
+     */
+    private MemberOrder(SortCategory category){
+        this.category = category;
+    }
+
+    /**
+     * Returns the ordering for a category
+     * @param category the category members are ordered by
+     * @return comparator putting members in the category's order
+     */
+    static MemberOrder of(SortCategory category){
+        switch (category){
+            case COUNTY:
+                return COUNTY;
+            case EXPIRATION_DATE:
+                return EXPIRATION_DATE;
+            default:
+                return NAME;
+        }
+    }
+
+    /**
+     * Compares two members in this ordering
+     * Format: compare(m1, m2)
+     * @param m1 the first member
+     * @param m2 the second member
+     * @return <0 if m1 comes before m2,
+     *         >0 if m1 comes after m2,
+     *         =0 if the members are equal
+     */
+    @Override
+    public int compare(Member m1, Member m2){
+        int order = 0;
+        switch (this.category){
+            case COUNTY:
+                order = m1.getLocation().getCounty().compareTo(m2.getLocation().getCounty());
+                if (order == 0){
+                    order = m1.getLocation().getZipCode().compareTo(m2.getLocation().getZipCode());
+                }
+                break;
+            case EXPIRATION_DATE:
+                order = m1.getExpire().compareTo(m2.getExpire());
+                break;
+        }
+        if (order != 0){
+            return order;
+        }
+        order = m1.compareTo(m2);
+        if (order != 0){
+            return order;
+        }
+        return m1.getDob().compareTo(m2.getDob());
+    }
+}
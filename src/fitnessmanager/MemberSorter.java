@@ -0,0 +1,359 @@
+package fitnessmanager;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * MemberSorter sorts members into the order of a SortCategory,
+ * matching MemberOrder exactly, with a sort picked for each category:
+ *  - NAME: stable bottom-up merge sort on precomputed name keys
+ *      (case folded last name and first name), then birthday
+ *  - COUNTY: name order, then a stable counting sort on the rank
+ *      of the member's Location (five locations, ranked by county then zipcode)
+ *  - EXPIRATION_DATE: name order, then a stable LSD radix sort
+ *      on the packed expiration date
+ * Every sort is O(n log n) or better in the worst case and none of
+ * them recurse, so already sorted input is not a problem.
+ * At or above Constant.PARALLEL_SORT_THRESHOLD members (and with more
+ * than one core) the name keys and merge sort are split across the
+ * common ForkJoinPool: halves are sorted in parallel, then merged
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class MemberSorter {
+    private static final int[] COUNTY_RANKS = countyRanks();    //Location ordinal -> position in county order
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * Not instantiable, only holds static helpers
+     */
+    private MemberSorter(){
+    }
+
+    /**
+     * Ranks every Location by county, then zipcode
+     * @return rank of each location, indexed by Location ordinal
+     */
+    private static int[] countyRanks(){
+        Location[] locations = Location.values();
+        int[] ranks = new int[locations.length];
+        for (Location location : locations){
+            for (Location other : locations){
+                int order = other.getCounty().compareTo(location.getCounty());
+                if (order == 0){
+                    order = other.getZipCode().compareTo(location.getZipCode());
+                }
+                if (order < 0){
+                    ranks[location.ordinal()]++;
+                }
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns every Location in county order
+     * @return the locations, ordered by county, then zipcode
+     */
+    static Location[] countyOrder(){
+        Location[] ordered = new Location[COUNTY_RANKS.length];
+        for (Location location : Location.values()){
+            ordered[COUNTY_RANKS[location.ordinal()]] = location;
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns a copy of the members, sorted by category
+     * @param members the members to sort, from index 0
+     * @param size number of members to sort
+     * @param category the category to sort members by
+     * @return new array of the sorted members
+     */
+    static Member[] sort(Member[] members, int size, SortCategory category){
+        String[] lnames = new String[size];
+        String[] fnames = new String[size];
+        int[] dobs = new int[size];
+        byte[] locations = new byte[size];
+        int[] expires = new int[size];
+        for (int i = 0; i < size; i++){
+            lnames[i] = members[i].getLname();
+            fnames[i] = members[i].getFname();
+            dobs[i] = members[i].getDob().pack();
+            locations[i] = (byte) members[i].getLocation().ordinal();
+            expires[i] = members[i].getExpire().pack();
+        }
+        int[] rows = sortedRows(lnames, fnames, dobs, locations, expires, size, category);
+        Member[] sorted = new Member[size];
+        for (int i = 0; i < size; i++){
+            sorted[i] = members[rows[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Sorts the rows of member columns by category
+     * @param lnames last name of each row
+     * @param fnames first name of each row
+     * @param dobs packed birthday of each row
+     * @param locations Location ordinal of each row
+     * @param expires packed expiration date of each row
+     * @param size number of rows to sort
+     * @param category the category to sort rows by
+     * @return the rows (0 to size - 1) in sorted order
+     */
+    static int[] sortedRows(String[] lnames, String[] fnames, int[] dobs, byte[] locations,
+                            int[] expires, int size, SortCategory category){
+        ForkJoinPool pool = null;
+        if (size >= Constant.PARALLEL_SORT_THRESHOLD.getValue()
+                && ForkJoinPool.getCommonPoolParallelism() > 1){
+            pool = ForkJoinPool.commonPool();
+        }
+        return sortedRows(lnames, fnames, dobs, locations, expires, size, category, pool);
+    }
+
+    /**
+     * Sorts the rows of member columns by category
+     * @param lnames last name of each row
+     * @param fnames first name of each row
+     * @param dobs packed birthday of each row
+     * @param locations Location ordinal of each row
+     * @param expires packed expiration date of each row
+     * @param size number of rows to sort
+     * @param category the category to sort rows by
+     * @param pool pool to sort names in parallel on, null to sort sequentially
+     * @return the rows (0 to size - 1) in sorted order
+     */
+    static int[] sortedRows(String[] lnames, String[] fnames, int[] dobs, byte[] locations,
+                            int[] expires, int size, SortCategory category, ForkJoinPool pool){
+        String[] nameKeys = new String[size];
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++){
+            rows[row] = row;
+        }
+        NameSort nameSort = new NameSort(rows, new int[size], lnames, fnames, nameKeys, dobs, 0, size);
+        if (pool == null){
+            nameSort.sortSequentially();
+        }
+        else {
+            pool.invoke(nameSort);
+        }
+        switch (category){
+            case COUNTY:
+                return countingSortByCounty(rows, locations);
+            case EXPIRATION_DATE:
+                return radixSortByDate(rows, expires);
+            default:
+                return rows;
+        }
+    }
+
+    /**
+     * Builds the key names are sorted by
+     * Each character is folded the way compareToIgnoreCase compares it,
+     * and the last name is ended with '\0' so it sorts before any
+     * longer last name it is a prefix of
+     * @param lname last name of the member
+     * @param fname first name of the member
+     * @return key whose String order is the case-insensitive name order
+     */
+    static String nameKey(String lname, String fname){
+        char[] key = new char[lname.length() + 1 + fname.length()];
+        int length = 0;
+        for (int i = 0; i < lname.length(); i++){
+            key[length++] = Character.toLowerCase(Character.toUpperCase(lname.charAt(i)));
+        }
+        key[length++] = '\0';
+        for (int i = 0; i < fname.length(); i++){
+            key[length++] = Character.toLowerCase(Character.toUpperCase(fname.charAt(i)));
+        }
+        return new String(key);
+    }
+
+    /**
+     * Compares two rows by name key, then birthday
+     * @param a the first row
+     * @param b the second row
+     * @param nameKeys name key of each row
+     * @param dobs packed birthday of each row
+     * @return <0 if row a comes first, >0 if row b comes first, 0 if equal
+     */
+    private static int compareNames(int a, int b, String[] nameKeys, int[] dobs){
+        int order = nameKeys[a].compareTo(nameKeys[b]);
+        if (order != 0){
+            return order;
+        }
+        return Integer.compare(dobs[a], dobs[b]);
+    }
+
+    /**
+     * Merges two sorted runs of rows, src[low, middle) and src[middle, high),
+     * into dst[low, high), taking from the left run on ties (stable)
+     * @param src the rows holding both runs
+     * @param dst the rows to merge into
+     * @param low start of the left run
+     * @param middle end of the left run and start of the right run
+     * @param high end of the right run
+     * @param nameKeys name key of each row
+     * @param dobs packed birthday of each row
+     */
+    private static void merge(int[] src, int[] dst, int low, int middle, int high, String[] nameKeys, int[] dobs){
+        int left = low;
+        int right = middle;
+        for (int out = low; out < high; out++){
+            if (left < middle && (right >= high
+                    || compareNames(src[left], src[right], nameKeys, dobs) <= 0)){
+                dst[out] = src[left++];
+            }
+            else {
+                dst[out] = src[right++];
+            }
+        }
+    }
+
+    /**
+     * NameSort sorts a range of rows by name, then birthday, computing
+     * the name keys of those rows first
+     * Run sequentially it is a stable bottom-up merge sort.
+     * Run on a ForkJoinPool it splits the range in half until it is below
+     * Constant.PARALLEL_SORT_THRESHOLD, sorts the halves in parallel
+     * and merges them, so the recursion is only log(n / threshold) deep
+     */
+    private static class NameSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] rows;
+        private final int[] buffer;
+        private final String[] lnames;
+        private final String[] fnames;
+        private final String[] nameKeys;
+        private final int[] dobs;
+        private final int low;
+        private final int high;
+
+        /**
+         * Creates a sort of rows[low, high)
+         * @param rows the rows to sort, holding rows low to high - 1
+         * @param buffer scratch space the same length as rows
+         * @param lnames last name of each row
+         * @param fnames first name of each row
+         * @param nameKeys name key of each row, filled in by the sort
+         * @param dobs packed birthday of each row
+         * @param low start of the range
+         * @param high end of the range
+         */
+        NameSort(int[] rows, int[] buffer, String[] lnames, String[] fnames, String[] nameKeys,
+                 int[] dobs, int low, int high){
+            this.rows = rows;
+            this.buffer = buffer;
+            this.lnames = lnames;
+            this.fnames = fnames;
+            this.nameKeys = nameKeys;
+            this.dobs = dobs;
+            this.low = low;
+            this.high = high;
+        }
+
+        /**
+         * Sorts the range, splitting it across the pool if it is large
+         */
+        @Override
+        protected void compute(){
+            if (this.high - this.low < Constant.PARALLEL_SORT_THRESHOLD.getValue()){
+                sortSequentially();
+                return;
+            }
+            int middle = (this.low + this.high) >>> 1;
+            invokeAll(new NameSort(this.rows, this.buffer, this.lnames, this.fnames, this.nameKeys, this.dobs,
+                            this.low, middle),
+                    new NameSort(this.rows, this.buffer, this.lnames, this.fnames, this.nameKeys, this.dobs,
+                            middle, this.high));
+            merge(this.rows, this.buffer, this.low, middle, this.high, this.nameKeys, this.dobs);
+            System.arraycopy(this.buffer, this.low, this.rows, this.low, this.high - this.low);
+        }
+
+        /**
+         * Sorts the range on this thread
+         * Merges runs of width 1, 2, 4... back and forth between rows
+         * and buffer, then copies the result into rows if it ended in buffer
+         */
+        void sortSequentially(){
+            for (int row = this.low; row < this.high; row++){
+                this.nameKeys[row] = nameKey(this.lnames[row], this.fnames[row]);
+            }
+            int[] src = this.rows;
+            int[] dst = this.buffer;
+            for (int width = 1; width < this.high - this.low; width = width * 2){
+                for (int start = this.low; start < this.high; start = start + 2 * width){
+                    int middle = Math.min(start + width, this.high);
+                    int end = Math.min(start + 2 * width, this.high);
+                    merge(src, dst, start, middle, end, this.nameKeys, this.dobs);
+                }
+                int[] swap = src;
+                src = dst;
+                dst = swap;
+            }
+            if (src != this.rows){
+                System.arraycopy(src, this.low, this.rows, this.low, this.high - this.low);
+            }
+        }
+    }
+
+    /**
+     * Stable counting sort of rows by the county rank of their Location
+     * @param rows the rows to sort
+     * @param locations Location ordinal of each row
+     * @return the sorted rows
+     */
+    private static int[] countingSortByCounty(int[] rows, byte[] locations){
+        int[] starts = new int[COUNTY_RANKS.length + 1];
+        for (int row : rows){
+            starts[COUNTY_RANKS[locations[row]] + 1]++;
+        }
+        for (int rank = 0; rank < COUNTY_RANKS.length; rank++){
+            starts[rank + 1] += starts[rank];
+        }
+        int[] sorted = new int[rows.length];
+        for (int row : rows){
+            sorted[starts[COUNTY_RANKS[locations[row]]]++] = row;
+        }
+        return sorted;
+    }
+
+    /**
+     * Stable LSD radix sort of rows by packed date,
+     * two passes of 16 bits each
+     * @param rows the rows to sort
+     * @param dates packed date of each row
+     * @return the sorted rows
+     */
+    private static int[] radixSortByDate(int[] rows, int[] dates){
+        int[] buffer = new int[rows.length];
+        for (int shift = 0; shift < Integer.SIZE; shift = shift + RADIX_BITS){
+            int[] starts = new int[RADIX + 1];
+            for (int row : rows){
+                starts[digit(dates[row], shift) + 1]++;
+            }
+            for (int digit = 0; digit < RADIX; digit++){
+                starts[digit + 1] += starts[digit];
+            }
+            for (int row : rows){
+                buffer[starts[digit(dates[row], shift)]++] = row;
+            }
+            int[] swap = rows;
+            rows = buffer;
+            buffer = swap;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns 16 bits of a packed date, with the sign bit flipped
+     * so negative values sort before positive ones
+     * @param date the packed date
+     * @param shift which 16 bits to return (0 or 16)
+     * @return the digit, 0 to 65535
+     */
+    private static int digit(int date, int shift){
+        return ((date ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+}
@@ -0,0 +1,116 @@
+package fitnessmanager;
+
+import java.util.ArrayList;
+
+/**
+ * MemberStore is the contract every gym member database backend meets,
+ * so GymManager, the member loader, snapshots and the journal work the
+ * same whichever backend stores the members
+ * Implemented by:
+ *  - MemberDatabase, which stores Member objects and keeps sorted, name
+ *      and expiration indexes, and is safe to share between threads
+ *  - ColumnarMemberDatabase, which stores members column by column in
+ *      less memory, and returns Member views of its rows
+ * Members are found by name and birthday (see Member.equals)
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public interface MemberStore {
+    /**
+     * Tries to find member in database equal to input parameter
+     * @param member the member to find in the database
+     * @return the member stored in the database that's equal to
+     *              the input parameter
+     *         null if there is no such member in the database
+     */
+    Member findMember(Member member);
+
+    /**
+     * Adds a member into the database, unless it is already there
+     * @param member the member to add in the database
+     * @return true if member was added, false if not added
+     */
+    boolean add(Member member);
+
+    /**
+     * Adds many members into the database at once, e.g. when restoring
+     * a snapshot or loading a chunk of a member list
+     * Members already in the database are not added; their entries in
+     * the array are replaced by the stored member
+     * @param members the members to add, in order
+     * @return number of members added
+     */
+    int addAll(Member[] members);
+
+    /**
+     * Makes room in the database for more members, so adding them
+     * doesn't grow it again and again
+     * @param members number of members about to be added
+     */
+    void reserve(int members);
+
+    /**
+     * Removes a specific member from the database, if it is there
+     * @param member the member to remove from the database
+     * @return true if member was removed, false if not removed
+     */
+    boolean remove(Member member);
+
+    /**
+     * Checks if this database is empty
+     * @return true if this database is empty, false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns the members in this database
+     * @return the members, in the order they were added
+     */
+    ArrayList<Member> members();
+
+    /**
+     * Returns the members whose membership expires between two dates
+     * @param from the first expiration date to include
+     * @param to the last expiration date to include
+     * @return members expiring from the first date to the last date,
+     *              ordered by expiration date
+     */
+    ArrayList<Member> expiringBetween(Date from, Date to);
+
+    /**
+     * Returns the earliest expiration date of any member
+     * @return the earliest expiration date,
+     *         null if there are no members
+     */
+    Date earliestExpiration();
+
+    /**
+     * Finds members whose last or first name starts with a prefix
+     * Members matching by last name come first, ordered by last name then
+     * first name, followed by members only matching by first name
+     * @param prefix the start of the name, not case-sensitive
+     * @param limit the most members to return
+     * @return the matching members, at most limit of them
+     */
+    ArrayList<Member> searchByPrefix(String prefix, int limit);
+
+    /**
+     * Prints out unsorted list of members
+     */
+    void print();
+
+    /**
+     * Prints out unsorted list of members with their fees and guest passes
+     */
+    void printWithFees();
+
+    /**
+     * Prints out sorted list of members
+     * Could be ordered by
+     *  - county their gym is in (alphabetically),
+     *      if it's the same then it compares the zipcode of the gym location.
+     *  - expiration date of their membership
+     *  - member last name then first name (alphabetically)
+     * @param category the category to sort members by
+     */
+    void sortedPrint(SortCategory category);
+}
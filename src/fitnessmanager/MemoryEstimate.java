@@ -0,0 +1,63 @@
+package fitnessmanager;
+
+/**
+ * MemoryEstimate holds the object layout rules used to estimate
+ * how many heap bytes the member databases use
+ * Assumes a 64-bit JVM with compressed references:
+ *  - 12 byte object header, 16 byte array header
+ *  - 4 byte references
+ *  - objects aligned to 8 bytes
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class MemoryEstimate {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * Not instantiable, only holds static helpers
+     */
+    private MemoryEstimate(){
+    }
+
+    /**
+     * Rounds a size up to the object alignment
+     * @param bytes unaligned size of an object
+     * @return size the object takes up on the heap
+     */
+    static long align(long bytes){
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Size of an object with the given fields
+     * @param fieldBytes total size of the object's fields
+     * @return size the object takes up on the heap
+     */
+    static long object(long fieldBytes){
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Size of an array
+     * @param elementBytes size of one element
+     * @param length number of elements
+     * @return size the array takes up on the heap
+     */
+    static long array(int elementBytes, int length){
+        return align(ARRAY_HEADER + (long) elementBytes * length);
+    }
+
+    /**
+     * Size of a String and its (Latin-1, compact) character array
+     * @param str the string to measure
+     * @return size the string takes up on the heap, 0 if null
+     */
+    static long string(String str){
+        if (str == null){
+            return 0;
+        }
+        return object(REFERENCE + 4 + 1 + 1) + array(1, str.length());
+    }
+}
@@ -21,6 +21,8 @@ public enum Month {
     NOVEMBER(11, 30),
     DECEMBER(12, 31);
 
+    private static final Month[] BY_NUMBER = byNumber();       //Month number -> month, null for 0
+
     private final int numberMonth;
     private final int lastDayInMonth;
 
@@ -50,19 +52,30 @@ public enum Month {
         return this.lastDayInMonth;
     }
 
+    /**
+     * Builds the table of months by number
+     * @return every month, indexed by its number
+     */
+    private static Month[] byNumber(){
+        Month[] byNumber = new Month[values().length + 1];
+        for (Month month : values()){
+            byNumber[month.getNumberMonth()] = month;
+        }
+        return byNumber;
+    }
+
     /**
      * Method takes in int and returns corresponding month enum
+     * Indexes a table of the months by number instead of searching them
      * @param numberMonth, int that represents month
      *   (e.g. 1 - January, 2 - February...)
      * @return month that corresponds to numberMonth
      *         null otherwise
      */
     public static Month intToMonth(int numberMonth){
-        for (Month month: Month.values()){
-            if (numberMonth == month.getNumberMonth()){
-                return month;
-            }
+        if (numberMonth < 0 || numberMonth >= BY_NUMBER.length){
+            return null;
         }
-        return null;
+        return BY_NUMBER[numberMonth];
     }
 }
@@ -0,0 +1,117 @@
+package fitnessmanager;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * NameIndex finds members by the start of their last or first name
+ * Stores the following data:
+ *  - Members keyed by last name, then first name, then birthday
+ *  - Members keyed by first name, then last name, then birthday
+ * Keys are case folded the way compareToIgnoreCase compares names, so
+ * searches are not case-sensitive. Both maps are sorted, so the members
+ * whose name starts with a prefix are next to each other: a search is
+ * O(log n) plus the number of members returned.
+ * Safe to use from several threads
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class NameIndex {
+    private final ConcurrentSkipListMap<String, Member> byLastName;
+    private final ConcurrentSkipListMap<String, Member> byFirstName;
+
+    /**
+     * Creates an index of members
+     * Keys are sorted once, then both skip lists are built from them
+     * in linear time
+     * @param members the members to index
+     * @param size number of members to index
+     */
+    NameIndex(Member[] members, int size){
+        TreeMap<String, Member> lastNames = new TreeMap<>();
+        TreeMap<String, Member> firstNames = new TreeMap<>();
+        for (int i = 0; i < size; i++){
+            lastNames.put(key(members[i].getLname(), members[i].getFname(), members[i].getDob()), members[i]);
+            firstNames.put(key(members[i].getFname(), members[i].getLname(), members[i].getDob()), members[i]);
+        }
+        this.byLastName = new ConcurrentSkipListMap<>(lastNames);
+        this.byFirstName = new ConcurrentSkipListMap<>(firstNames);
+    }
+
+    /**
+     * Builds the key a member is stored under
+     * Format: folded first name part, '\0', folded second name part,
+     * '\0', then the packed birthday as two chars, so members with the
+     * same name but different birthdays have different keys
+     * @param first the name the key starts with
+     * @param second the other name
+     * @param dob birthday of the member
+     * @return the key
+     */
+    static String key(String first, String second, Date dob){
+        int packed = dob.pack();
+        return MemberSorter.nameKey(first, second) + '\0' + (char) (packed >>> 16) + (char) packed;
+    }
+
+    /**
+     * Case folds a prefix the same way names are folded in keys
+     * @param prefix the typed prefix
+     * @return the folded prefix
+     */
+    static String fold(String prefix){
+        char[] folded = new char[prefix.length()];
+        for (int i = 0; i < prefix.length(); i++){
+            folded[i] = Character.toLowerCase(Character.toUpperCase(prefix.charAt(i)));
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Adds a member to the index
+     * @param member the member to add
+     */
+    void add(Member member){
+        this.byLastName.put(key(member.getLname(), member.getFname(), member.getDob()), member);
+        this.byFirstName.put(key(member.getFname(), member.getLname(), member.getDob()), member);
+    }
+
+    /**
+     * Removes a member from the index
+     * @param member the member to remove
+     */
+    void remove(Member member){
+        this.byLastName.remove(key(member.getLname(), member.getFname(), member.getDob()));
+        this.byFirstName.remove(key(member.getFname(), member.getLname(), member.getDob()));
+    }
+
+    /**
+     * Finds members whose last or first name starts with a prefix
+     * Members matching by last name come first, ordered by last name then
+     * first name, followed by members only matching by first name,
+     * ordered by first name then last name
+     * @param prefix the start of the name, not case-sensitive
+     * @param limit the most members to return
+     * @return the matching members, at most limit of them
+     */
+    ArrayList<Member> search(String prefix, int limit){
+        String folded = fold(prefix);
+        ArrayList<Member> matches = new ArrayList<>();
+        for (Map.Entry<String, Member> entry : this.byLastName.tailMap(folded).entrySet()){
+            if (matches.size() == limit || !entry.getKey().startsWith(folded)){
+                break;
+            }
+            matches.add(entry.getValue());
+        }
+        for (Map.Entry<String, Member> entry : this.byFirstName.tailMap(folded).entrySet()){
+            if (matches.size() == limit || !entry.getKey().startsWith(folded)){
+                break;
+            }
+            Member member = entry.getValue();
+            if (!fold(member.getLname()).startsWith(folded)){      //Otherwise already found by last name
+                matches.add(member);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,81 @@
+package fitnessmanager;
+
+import java.util.ArrayList;
+
+/**
+ * ParsedChunk is what one chunk of a file was parsed into (see ChunkedReader)
+ * Stores the following data:
+ *  - What each line that could be read was parsed into, in line order
+ *  - Each line that couldn't be read: its line in the chunk and why
+ *  - Number of lines parsed, so the chunks after it know their line numbers
+ * Only used by the thread parsing the chunk until it's done
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+class ParsedChunk<T> {
+    private final ArrayList<T> items;
+    private final ArrayList<Integer> errorLines;    //Line in the chunk of each error, from 0
+    private final ArrayList<String> errors;
+    private int lines;
+
+    /**
+     * Creates an empty chunk
+     */
+    ParsedChunk(){
+        this.items = new ArrayList<>();
+        this.errorLines = new ArrayList<>();
+        this.errors = new ArrayList<>();
+    }
+
+    /**
+     * Adds the next line, which was parsed into an item
+     * @param item what the line was parsed into
+     */
+    void add(T item){
+        this.items.add(item);
+        this.lines++;
+    }
+
+    /**
+     * Adds the next line, which had nothing to read (a blank line)
+     */
+    void skip(){
+        this.lines++;
+    }
+
+    /**
+     * Adds the next line, which couldn't be read
+     * @param reason why the line couldn't be read
+     */
+    void error(String reason){
+        this.errorLines.add(this.lines);
+        this.errors.add(reason);
+        this.lines++;
+    }
+
+    /**
+     * Getter method for what the lines were parsed into
+     * @return what each line that could be read was parsed into, in line order
+     */
+    ArrayList<T> getItems(){
+        return this.items;
+    }
+
+    /**
+     * Getter method for the number of lines parsed
+     * @return number of lines in the chunk
+     */
+    int getLines(){
+        return this.lines;
+    }
+
+    /**
+     * Adds the lines that couldn't be read to a report
+     * @param report the report for the whole file
+     * @param firstLine line number in the file of the chunk's first line
+     */
+    void reportErrors(LoadReport report, long firstLine){
+        for (int i = 0; i < this.errors.size(); i++){
+            report.addError(firstLine + this.errorLines.get(i), this.errors.get(i));
+        }
+    }
+}
@@ -28,6 +28,20 @@ public class Premium extends Family{
         this.guestPasses = Constant.PREMIUM_MAX_PASS_NUM.getValue();
     }
 
+    /**
+     * Creates a premium member object from already parsed fields
+     * Starts with 3 guest passes (max per premium membership)
+     * @param fname first name of the member
+     * @param lname last name of the member
+     * @param dob birthday of the member
+     * @param expire expiration date of the member's gym membership
+     * @param location the gym the member belongs to
+     */
+    public Premium(String fname, String lname, Date dob, Date expire, Location location){
+        super(fname, lname, dob, expire, location);
+        this.guestPasses = Constant.PREMIUM_MAX_PASS_NUM.getValue();
+    }
+
     /**
      * Creates a premium member object
      * Starts with 3 guest passes (max per premium membership)
@@ -76,7 +90,7 @@ public class Premium extends Family{
      */
     @Override
     public String toString(){
-        if (super.expire.compareTo(new Date()) < 0){                  //Check if membership expiration date has passed
+        if (super.expire.compareTo(GymClock.get().today()) < 0){     //Check if membership expiration date has passed
             return super.fname + " " + super.lname + ", DOB: " + super.dob.toString()
                     +  ", Membership expired " + super.expire.toString()
                     +  ", Location: " + super.location.toString() + ", (Premium) Guest-pass remaining: "
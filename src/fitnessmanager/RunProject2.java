@@ -1,11 +1,115 @@
 package fitnessmanager;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * Driver class to run Project 2
  * @author Arya Shetty, John Greaney-Cheng
  */
 public class RunProject2 {
+    private static final String USAGE = "Usage: RunProject2 [members=FILE] [quiet] [columnar]"
+            + " [journal | journal=N] [batch | batch=FILE] [out=FILE]";
+
+    /**
+     * Runs the gym manager
+     * Optional arguments, in any order:
+     *  - "members=FILE" for the member list file LM loads from
+     *      (".\memberList.txt" if not given)
+     *  - "quiet" to not print each member loaded
+     *  - "columnar" to store members in a ColumnarMemberDatabase,
+     *      which uses less memory, instead of a MemberDatabase
+     *  - "journal" to journal changes (see GymManager), or "journal=N"
+     *      to force them to disk N at a time (1 for every change)
+     *  - "batch" to run the commands piped in without waiting on the
+     *      console (see GymManager.runBatch), or "batch=FILE" to run the
+     *      commands in FILE
+     *  - "out=FILE" to write the output of a batch to FILE
+     * Prints the usage and doesn't run if an argument isn't one of these
+     * @param args the command line arguments
+     */
     public static void main(String[] args){
-        new GymManager().run();
+        Path members = Paths.get(".\\memberList.txt");
+        boolean echoMembers = true;
+        boolean columnar = false;
+        int journalGroup = 0;
+        boolean batch = false;
+        Path commands = null;                                   //Null for the console input
+        Path output = null;                                     //Null for the console
+        for (String arg : args){
+            String lower = arg.toLowerCase();
+            if (lower.equals("quiet")){
+                echoMembers = false;
+            }
+            else if (lower.equals("columnar")){
+                columnar = true;
+            }
+            else if (lower.equals("journal")){
+                journalGroup = Constant.JOURNAL_GROUP_SIZE.getValue();
+            }
+            else if (lower.startsWith("journal=")){
+                journalGroup = parseGroup(arg.substring("journal=".length()));
+                if (journalGroup <= 0){
+                    usage(arg + ": journal group must be a whole number above 0");
+                    return;
+                }
+            }
+            else if (lower.equals("batch")){
+                batch = true;
+            }
+            else if (lower.equals("batch=") || lower.equals("out=") || lower.equals("members=")){
+                usage(arg + ": missing file name");
+                return;
+            }
+            else if (lower.startsWith("batch=")){
+                batch = true;
+                commands = Paths.get(arg.substring("batch=".length()));
+            }
+            else if (lower.startsWith("out=")){
+                output = Paths.get(arg.substring("out=".length()));
+            }
+            else if (lower.startsWith("members=")){
+                members = Paths.get(arg.substring("members=".length()));
+            }
+            else {
+                usage(arg + ": unknown argument");
+                return;
+            }
+        }
+        if (output != null && !batch){
+            usage("out=" + output + ": only used with batch");
+            return;
+        }
+        MemberStore db = columnar ? new ColumnarMemberDatabase() : new MemberDatabase();
+        GymManager gymManager = new GymManager(members, echoMembers, journalGroup, db);
+        if (batch){
+            gymManager.runBatch(commands, output);
+        }
+        else {
+            gymManager.run();
+        }
+    }
+
+    /**
+     * Reads the number of changes the journal forces to disk together
+     * @param text the number
+     * @return the number, -1 if the text isn't a whole number
+     */
+    private static int parseGroup(String text){
+        try {
+            return Integer.parseInt(text);
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Prints why the arguments can't be used, and the arguments that can
+     * @param reason what was wrong with the arguments
+     */
+    private static void usage(String reason){
+        System.out.println(reason);
+        System.out.println(USAGE);
     }
 }
@@ -0,0 +1,400 @@
+package fitnessmanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot saves the members and class rosters to a binary file and
+ * restores them, so a restart doesn't need to read the text files again
+ * and keeps check-ins and used guest passes
+ * File format (big-endian):
+ *  - Header: MAGIC, VERSION, CRC32C and length of the rest of the file
+ *  - Journal sequence: the last journal record the snapshot includes,
+ *      0 if none (see Journal)
+ *  - Members: count, then for each member its membership type and which
+ *      dates it has (one byte of flags), first and last name (UTF-8,
+ *      length first), birthday and expiration date as packed dates,
+ *      location ordinal, and guest passes left for family and premium members
+ *  - Classes: count, then for each class its class type, instructor and
+ *      location ordinals, time name, days, session length and capacity,
+ *      then its members, guests (one entry per guest) and waitlist, each
+ *      a count followed by indexes into the members above
+ * The file is written to a temporary file first and moved over the old
+ * snapshot, so a crash while saving leaves the old snapshot as it was
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class Snapshot {
+    private static final int MAGIC = 0x47594D53;            //"GYMS"
+    private static final int VERSION = 2;
+    private static final int VERSION_AT = 4;                //Header: index of each field
+    private static final int CRC_AT = 8;
+    private static final int LENGTH_AT = 12;
+    private static final int HEADER_BYTES = 20;
+    private static final int BODY_AT = HEADER_BYTES + Long.BYTES;   //After the journal sequence
+    private static final int TYPE_MASK = 0x3;               //Flags: MembershipType ordinal
+    private static final int HAS_DOB = 0x4;                 //Flags: birthday follows
+    private static final int HAS_EXPIRE = 0x8;              //Flags: expiration date follows
+    private static final int NONE = -1;                     //Ordinal of a missing location, index of a member not written
+
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a snapshot being written, with room for some members
+     * @param members number of members expected
+     */
+    private Snapshot(int members){
+        this.buffer = ByteBuffer.allocate(BODY_AT + (members + 1) * Constant.MEMBER_ROW_BYTES.getValue());
+    }
+
+    /**
+     * Saves the members of a database and the rosters of a schedule
+     * @param path the snapshot file
+     * @param db the members to save
+     * @param cs the classes to save
+     * @param sequence the last journal record included, 0 if none
+     * @return number of members saved
+     * @throws IOException if the file can't be written
+     */
+    static int save(Path path, MemberStore db, ClassSchedule cs, long sequence) throws IOException {
+        ArrayList<Member> members = db.members();
+        FitnessClass[] classes = cs.getClasses();
+        HashMap<Member, Integer> indexes = new HashMap<>();     //Only members on a roster, NONE until written
+        for (FitnessClass fc : classes){
+            for (Member member : fc.getMemberList()){
+                indexes.put(member, NONE);
+            }
+            for (Member member : fc.getGuestList()){
+                indexes.put(member, NONE);
+            }
+            for (Member member : fc.getWaitlist()){
+                indexes.put(member, NONE);
+            }
+        }
+        Snapshot snapshot = new Snapshot(members.size());
+        snapshot.buffer.position(HEADER_BYTES);
+        snapshot.buffer.putLong(sequence);
+        snapshot.buffer.putInt(members.size());
+        for (int i = 0; i < members.size(); i++){
+            Member member = members.get(i);
+            if (!indexes.isEmpty() && indexes.containsKey(member)){
+                indexes.put(member, i);
+            }
+            snapshot.putMember(member);
+        }
+        snapshot.ensure(Integer.BYTES);
+        snapshot.buffer.putInt(classes.length);
+        for (FitnessClass fc : classes){
+            snapshot.putClass(fc, indexes);
+        }
+        ByteBuffer buffer = snapshot.buffer;
+        int length = buffer.position() - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, MAGIC).putInt(VERSION_AT, VERSION).putInt(CRC_AT, (int) crc.getValue()).putLong(LENGTH_AT, length);
+        buffer.flip();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            while (buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return members.size();
+    }
+
+    /**
+     * Writes a member
+     * @param member the member
+     */
+    private void putMember(Member member){
+        byte[] fname = member.getFname().getBytes(StandardCharsets.UTF_8);
+        byte[] lname = member.getLname().getBytes(StandardCharsets.UTF_8);
+        ensure(fname.length + lname.length + Constant.MEMBER_ROW_BYTES.getValue());
+        MembershipType type = member instanceof Premium ? MembershipType.PREMIUM
+                : member instanceof Family ? MembershipType.FAMILY : MembershipType.STANDARD;
+        int flags = type.ordinal();
+        if (member.getDob() != null){
+            flags |= HAS_DOB;
+        }
+        if (member.getExpire() != null){
+            flags |= HAS_EXPIRE;
+        }
+        this.buffer.put((byte) flags);
+        putBytes(fname);
+        putBytes(lname);
+        if (member.getDob() != null){
+            this.buffer.putInt(member.getDob().pack());
+        }
+        if (member.getExpire() != null){
+            this.buffer.putInt(member.getExpire().pack());
+        }
+        this.buffer.put((byte) (member.getLocation() == null ? NONE : member.getLocation().ordinal()));
+        if (member instanceof Family){
+            this.buffer.put((byte) ((Family) member).getGuestPasses());
+        }
+    }
+
+    /**
+     * Writes a class with its rosters
+     * Members on a roster who aren't in the database aren't written
+     * @param fc the class
+     * @param indexes index of each member on a roster
+     */
+    private void putClass(FitnessClass fc, HashMap<Member, Integer> indexes){
+        byte[] time = fc.getTimeName() == null ? new byte[0] : fc.getTimeName().getBytes(StandardCharsets.UTF_8);
+        ensure(time.length + Constant.MEMBER_ROW_BYTES.getValue());
+        this.buffer.put((byte) fc.getClassName().ordinal());
+        this.buffer.put((byte) fc.getInstructor().ordinal());
+        this.buffer.put((byte) fc.getLocation().ordinal());
+        putBytes(time);
+        this.buffer.put((byte) fc.getDays());
+        this.buffer.putShort((short) fc.getMinutes());
+        this.buffer.putInt(fc.getCapacity());
+        putMembers(new ArrayList<>(fc.getMemberList()), indexes);
+        putMembers(new ArrayList<>(fc.getGuestList()), indexes);
+        putMembers(fc.getWaitlist(), indexes);
+    }
+
+    /**
+     * Writes a roster as indexes of members written before
+     * @param members the members on the roster, in order
+     * @param indexes index of each member on a roster
+     */
+    private void putMembers(ArrayList<Member> members, HashMap<Member, Integer> indexes){
+        ensure((members.size() + 1) * Integer.BYTES);
+        int countAt = this.buffer.position();
+        int count = 0;
+        this.buffer.putInt(0);
+        for (Member member : members){
+            Integer index = indexes.get(member);
+            if (index != null && index != NONE){
+                this.buffer.putInt(index);
+                count++;
+            }
+        }
+        this.buffer.putInt(countAt, count);
+    }
+
+    /**
+     * Writes bytes with their length first
+     * @param bytes the bytes, at most 65535 of them
+     */
+    private void putBytes(byte[] bytes){
+        this.buffer.putShort((short) bytes.length);
+        this.buffer.put(bytes);
+    }
+
+    /**
+     * Makes room for more bytes, doubling the buffer if it's too small
+     * @param bytes number of bytes about to be written
+     */
+    private void ensure(int bytes){
+        if (this.buffer.remaining() < bytes){
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + bytes));
+            this.buffer.flip();
+            larger.put(this.buffer);
+            this.buffer = larger;
+        }
+    }
+
+    /**
+     * Restores the members and rosters saved in a snapshot
+     * Members already in the database are kept as they are, and the
+     * snapshot's rosters refer to them instead. Classes not in the
+     * schedule are added to it; the rosters of classes already in it
+     * get the snapshot's members, guests and waitlist added.
+     * A member or guest who can't be put back on a roster (a time
+     * conflict with a class already in the schedule, or a full class)
+     * is left off it and reported
+     * @param path the snapshot file
+     * @param db where members are restored
+     * @param cs where classes and rosters are restored
+     * @return the number of members in the snapshot, and each roster
+     *         entry that couldn't be restored
+     * @throws IOException if the file can't be read, isn't a snapshot,
+     *         or is corrupt
+     */
+    static LoadReport restore(Path path, MemberStore db, ClassSchedule cs) throws IOException {
+        ByteBuffer buffer = open(path);
+        buffer.position(BODY_AT);
+        Member[] members = new Member[buffer.getInt()];
+        byte[] name = new byte[Short.MAX_VALUE * 2 + 1];
+        for (int i = 0; i < members.length; i++){
+            members[i] = getMember(buffer, name);
+        }
+        db.addAll(members);
+        LoadReport report = new LoadReport();
+        report.addLoaded(members.length);
+        int classes = buffer.getInt();
+        for (int i = 0; i < classes; i++){
+            getClass(buffer, name, members, cs, report);
+        }
+        return report;
+    }
+
+    /**
+     * Returns the last journal record a snapshot includes
+     * @param path the snapshot file
+     * @return sequence number of the record, 0 if none
+     * @throws IOException if the file can't be read, isn't a snapshot,
+     *         or is corrupt
+     */
+    static long sequence(Path path) throws IOException {
+        ByteBuffer buffer = open(path);
+        return buffer.getLong(HEADER_BYTES);
+    }
+
+    /**
+     * Maps a snapshot file and checks its header and CRC
+     * @param path the snapshot file
+     * @return the whole file
+     * @throws IOException if the file can't be read, isn't a snapshot,
+     *         or is corrupt
+     */
+    private static ByteBuffer open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if (channel.size() < BODY_AT || channel.size() > Integer.MAX_VALUE){
+                throw new IOException("not a snapshot");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC){
+            throw new IOException("not a snapshot");
+        }
+        int version = buffer.getInt(VERSION_AT);
+        if (version != VERSION){
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        if (buffer.getLong(LENGTH_AT) != buffer.capacity() - HEADER_BYTES){
+            throw new IOException("snapshot is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.position(HEADER_BYTES));
+        if ((int) crc.getValue() != buffer.getInt(CRC_AT)){
+            throw new IOException("snapshot is corrupt");
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads a member
+     * @param buffer the snapshot, at the member
+     * @param name reused to read names
+     * @return the member
+     */
+    private static Member getMember(ByteBuffer buffer, byte[] name){
+        int flags = buffer.get();
+        String fname = getString(buffer, name);
+        String lname = getString(buffer, name);
+        Date dob = (flags & HAS_DOB) != 0 ? Date.intern(buffer.getInt()) : null;
+        Date expire = (flags & HAS_EXPIRE) != 0 ? Date.intern(buffer.getInt()) : null;
+        int location = buffer.get();
+        Location gym = location == NONE ? null : Location.values()[location];
+        switch (MembershipType.values()[flags & TYPE_MASK]){
+            case FAMILY:
+                Family family = new Family(fname, lname, dob, expire, gym);
+                family.setGuestPasses(buffer.get());
+                return family;
+            case PREMIUM:
+                Premium premium = new Premium(fname, lname, dob, expire, gym);
+                premium.setGuestPasses(buffer.get());
+                return premium;
+            default:
+                return new Member(fname, lname, dob, expire, gym);
+        }
+    }
+
+    /**
+     * Reads a class and its rosters, adding the class to the schedule
+     * if it isn't in it
+     * @param buffer the snapshot, at the class
+     * @param name reused to read the time
+     * @param members the members restored, by index
+     * @param cs the schedule
+     * @param report where roster entries that can't be restored are reported
+     */
+    private static void getClass(ByteBuffer buffer, byte[] name, Member[] members, ClassSchedule cs,
+                                 LoadReport report){
+        ClassName className = ClassName.values()[buffer.get()];
+        Instructor instructor = Instructor.values()[buffer.get()];
+        Location location = Location.values()[buffer.get()];
+        String time = getString(buffer, name);
+        int days = buffer.get();
+        int minutes = buffer.getShort();
+        int capacity = buffer.getInt();
+        FitnessClass fc = cs.classAt(className, instructor, location);
+        if (fc == null){
+            fc = new FitnessClass(className.name(), instructor.name(), time, location.name());
+            fc.setWeeklySchedule(days, minutes);
+            fc.setCapacity(capacity);
+            cs.addClass(fc);
+        }
+        for (int i = buffer.getInt(); i > 0; i--){
+            enroll(cs, fc, members[buffer.getInt()], report);
+        }
+        for (int i = buffer.getInt(); i > 0; i--){
+            Member member = members[buffer.getInt()];
+            if (!fc.checkInGuest(member)){
+                if (member instanceof Family){                  //The pass saved as used goes back to the member
+                    ((Family) member).returnGuestPass();
+                }
+                report.addError(rosterEntry(member, " (guest)", fc) + ": class is full");
+            }
+        }
+        for (int i = buffer.getInt(); i > 0; i--){
+            enroll(cs, fc, members[buffer.getInt()], report);
+        }
+    }
+
+    /**
+     * Puts a member back in a class, or on its waitlist
+     * Either is fine: a member restored into a class that already has
+     * members of its own may only find a spot on the waitlist, or the
+     * other way around. Only a time conflict keeps the member out
+     * @param cs the schedule
+     * @param fc the class
+     * @param member the member
+     * @param report where the member is reported if they can't be restored
+     */
+    private static void enroll(ClassSchedule cs, FitnessClass fc, Member member, LoadReport report){
+        if (cs.enroll(fc, member) == EnrollmentStatus.TIME_CONFLICT){
+            report.addError(rosterEntry(member, "", fc) + ": time conflict");
+        }
+    }
+
+    /**
+     * Describes a roster entry for a report
+     * @param member the member on the roster
+     * @param role how the member is on the roster, ex: " (guest)"
+     * @param fc the class
+     * @return the member's name and role, and the class
+     */
+    private static String rosterEntry(Member member, String role, FitnessClass fc){
+        return member.getFname() + " " + member.getLname() + role + " in " + fc.getClassName().name()
+                + " - " + fc.getInstructor().name() + ", " + fc.getLocation().name();
+    }
+
+    /**
+     * Reads a string written with its length first
+     * @param buffer the snapshot, at the string
+     * @param bytes reused to read the string, long enough for any length
+     * @return the string
+     */
+    private static String getString(ByteBuffer buffer, byte[] bytes){
+        int length = Short.toUnsignedInt(buffer.getShort());
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
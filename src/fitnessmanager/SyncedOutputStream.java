@@ -0,0 +1,116 @@
+package fitnessmanager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * SyncedOutputStream holds output until the changes it acknowledges are
+ * on disk
+ * Bytes written are only buffered. Each time the buffer is written out
+ * (when it fills up, or on flush) the journal is forced to disk first,
+ * so no command's output is seen before the journal record of its change
+ * is durable, however many records the journal groups into one fsync.
+ * Stores the following data:
+ *  - the stream output is written out to
+ *  - what forces the journal to disk
+ *  - the buffer of bytes held, and how many bytes it holds before
+ *      writing them out
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+final class SyncedOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final Runnable sync;
+    private final int limit;
+    private byte[] buffer;
+    private int count;                                          //Bytes held in buffer
+    private boolean releasing;                                  //True while forcing the journal, which may print
+
+    /**
+     * Creates a SyncedOutputStream
+     * @param out the stream to write output out to
+     * @param sync forces every journal record logged so far to disk
+     * @param limit bytes to hold before writing them out
+     */
+    SyncedOutputStream(OutputStream out, Runnable sync, int limit){
+        this.out = out;
+        this.sync = sync;
+        this.limit = limit;
+        this.buffer = new byte[Math.min(limit, Constant.OUTPUT_BUFFER_CHARS.getValue())];
+    }
+
+    /**
+     * Holds one byte
+     * @param b the byte
+     * @throws IOException if the held output can't be written out
+     */
+    @Override
+    public void write(int b) throws IOException {
+        ensureRoom(1);
+        this.buffer[this.count++] = (byte) b;
+        if (this.count >= this.limit){
+            flush();
+        }
+    }
+
+    /**
+     * Holds part of an array of bytes
+     * @param bytes the bytes
+     * @param offset index of the first byte to hold
+     * @param length number of bytes to hold
+     * @throws IOException if the held output can't be written out
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureRoom(length);
+        System.arraycopy(bytes, offset, this.buffer, this.count, length);
+        this.count = this.count + length;
+        if (this.count >= this.limit){
+            flush();
+        }
+    }
+
+    /**
+     * Makes room in the buffer for more bytes, past the limit if the
+     * bytes are written while the journal is being forced
+     * @param length number of bytes about to be held
+     */
+    private void ensureRoom(int length){
+        if (this.count + length > this.buffer.length){
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.count + length));
+        }
+    }
+
+    /**
+     * Forces the journal to disk, then writes out and flushes the output held
+     * Output printed while forcing the journal (ex: a journal error)
+     * is held and written out with the rest
+     * @throws IOException if the output can't be written out
+     */
+    @Override
+    public void flush() throws IOException {
+        if (this.releasing){
+            return;
+        }
+        this.releasing = true;
+        try {
+            this.sync.run();
+        }
+        finally {
+            this.releasing = false;
+        }
+        this.out.write(this.buffer, 0, this.count);
+        this.count = 0;
+        this.out.flush();
+    }
+
+    /**
+     * Writes out the output held, see flush
+     * Doesn't close the stream written out to, ex: the console
+     * @throws IOException if the output can't be written out
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
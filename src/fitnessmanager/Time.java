@@ -12,6 +12,8 @@ public enum Time {
     AFTERNOON(14, 00),
     EVENING(18, 30);
 
+    private static final EnumCodec<Time> CODEC = new EnumCodec<>(values());   //Looks constants up by name
+
     private final int hour;
     private final int minute;
 
@@ -43,16 +45,12 @@ public enum Time {
 
     /**
      * Method takes in time name and returns a time enum
+     * Looks the name up in a table built once, without creating any objects
      * @param str string that represents time name
      * @return time string was referring to if it exists,
      *         null otherwise
      */
-    public static Time stringToTime(String str){
-        for (Time time: Time.values()){
-            if (str.equalsIgnoreCase(time.name())){
-                return time;
-            }
-        }
-        return null;
+    public static Time stringToTime(CharSequence str){
+        return CODEC.lookup(str);
     }
 }
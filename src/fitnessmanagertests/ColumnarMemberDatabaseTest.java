@@ -0,0 +1,207 @@
+package fitnessmanagertests;
+
+import fitnessmanager.*;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ColumnarMemberDatabaseTest is a JUnit class to test the ColumnarMemberDatabase class against MemberDatabase
+ * It runs the same adds and removes on both and checks that they find, search, print and sort the same
+ * members, that guest passes used through the members it returns are kept, and that storing members by
+ * column takes less memory
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class ColumnarMemberDatabaseTest {
+    private static final String[] LOCATIONS = {"BRIDGEWATER", "EDISON", "FRANKLIN", "PISCATAWAY", "SOMERVILLE"};
+
+    /**
+     * Adds and removes the same random members from both databases
+     * After every step both find the same members, and at the end
+     * both print the same lists, unsorted, with fees and sorted, find
+     * the same members by name and by expiration date, and list the same members
+     */
+    @Test
+    public void test_Same_Members_As_MemberDatabase_True() {
+        MemberStore rows = new MemberDatabase();
+        MemberStore columns = new ColumnarMemberDatabase();
+        Random random = new Random(7);
+        for (int step = 0; step < 3000; step++) {
+            Member member = randomMember(random, 400);
+            if (random.nextInt(3) == 0) {
+                assertEquals(rows.remove(member), columns.remove(member));
+            }
+            else {
+                assertEquals(rows.add(member), columns.add(member));
+            }
+            Member probe = randomMember(random, 400);
+            Member found = columns.findMember(probe);
+            assertEquals(String.valueOf(rows.findMember(probe)), String.valueOf(found));
+        }
+        assertEquals(rows.isEmpty(), columns.isEmpty());
+        assertEquals(printed(rows::print), printed(columns::print));
+        assertEquals(printed(rows::printWithFees), printed(columns::printWithFees));
+        for (SortCategory category : SortCategory.values()) {
+            assertEquals(printed(() -> rows.sortedPrint(category)), printed(() -> columns.sortedPrint(category)));
+        }
+        for (String prefix : new String[] {"", "l3", "F1", "f19", "x"}) {
+            assertEquals(rows.searchByPrefix(prefix, 10).toString(), columns.searchByPrefix(prefix, 10).toString());
+        }
+        assertEquals(rows.earliestExpiration().toString(), columns.earliestExpiration().toString());
+        Date from = new Date(3, 1, 2030);
+        Date to = new Date(5, 15, 2030);
+        assertEquals(sorted(rows.expiringBetween(from, to)), sorted(columns.expiringBetween(from, to)));
+        assertEquals(rows.members().toString(), columns.members().toString());
+    }
+
+    /**
+     * Guest passes used and returned through a member the database
+     * returned are written back, so the next member returned for the same
+     * row has them, even after the rows are compacted
+     */
+    @Test
+    public void test_Guest_Passes_Written_Back_True() {
+        ColumnarMemberDatabase columns = new ColumnarMemberDatabase();
+        for (int i = 0; i < 100; i++) {
+            columns.add(member(i));
+        }
+        Member premium = new Premium("Pat", "Lee", "1/02/1990", new Date(12, 31, 2030), "EDISON");
+        assertTrue(columns.add(premium));
+        Family first = (Family) columns.findMember(premium);
+        assertTrue(first.useGuestPass());
+        assertTrue(first.useGuestPass());
+        Family second = (Family) columns.findMember(premium);
+        assertTrue(second.toString().endsWith("Guest-pass remaining: 1"));
+        assertTrue(second.useGuestPass());
+        assertFalse(first.useGuestPass());
+        for (int i = 0; i < 100; i++) {
+            columns.remove(member(i));                          //Compacts the rows
+        }
+        assertTrue(first.returnGuestPass());
+        assertTrue(columns.findMember(premium).toString().endsWith("Guest-pass remaining: 1"));
+        assertTrue(columns.members().get(0).toString().endsWith("Guest-pass remaining: 1"));
+
+        Member family = new Family("Sam", "Ray", "3/04/1985", new Date(12, 31, 2030), "FRANKLIN");
+        columns.add(family);
+        assertTrue(((Family) columns.findMember(family)).useGuestPass());
+        assertFalse(((Family) columns.findMember(family)).useGuestPass());
+        assertTrue(((Family) columns.findMember(family)).returnGuestPass());
+        assertFalse(((Family) columns.findMember(family)).returnGuestPass());
+    }
+
+    /**
+     * Removes every member, some of them more than once, until the database is empty
+     * The members left can still be found after each remove
+     */
+    @Test
+    public void test_Remove_Every_Member_True() {
+        ColumnarMemberDatabase columns = new ColumnarMemberDatabase();
+        int members = 200;
+        for (int i = 0; i < members; i++) {
+            assertTrue(columns.add(member(i)));
+        }
+        for (int i = 0; i < members; i += 2) {
+            assertTrue(columns.remove(member(i)));
+            assertFalse(columns.remove(member(i)));
+        }
+        for (int i = 1; i < members; i += 2) {
+            assertNotNull(columns.findMember(member(i)));
+            assertTrue(columns.remove(member(i)));
+            for (int j = i + 2; j < members; j += 2) {
+                assertNotNull(columns.findMember(member(j)));
+            }
+        }
+        assertTrue(columns.isEmpty());
+        assertEquals("", printed(columns::print));
+    }
+
+    /**
+     * Storing the same members by column takes fewer bytes per member
+     * than storing them as Member objects
+     */
+    @Test
+    public void test_Columns_Use_Less_Memory_True() {
+        MemberDatabase rows = new MemberDatabase();
+        ColumnarMemberDatabase columns = new ColumnarMemberDatabase();
+        for (int i = 0; i < 10000; i++) {
+            rows.add(member(i));
+            columns.add(member(i));
+        }
+        assertTrue(columns.bytesPerMember() > 0);
+        assertTrue(columns.bytesPerMember() < rows.bytesPerMember());
+    }
+
+    /**
+     * Creates one of a fixed set of members
+     * @param i which member to create
+     * @return the member, a Family member for every third i
+     */
+    private Member member(int i) {
+        Date expire = new Date(12, 31, 2030);
+        if (i % 3 == 0) {
+            return new Family("F" + i, "L" + i, "1/02/1990", expire, LOCATIONS[i % LOCATIONS.length]);
+        }
+        return new Member("F" + i, "L" + i, "1/02/1990", expire, LOCATIONS[i % LOCATIONS.length]);
+    }
+
+    /**
+     * Creates a random member of any membership type, from a limited
+     * set of names and birthdays so that the same member comes up again
+     * @param random the random numbers to use
+     * @param names number of different names to pick from
+     * @return the member
+     */
+    private Member randomMember(Random random, int names) {
+        int name = random.nextInt(names);
+        String dob = "1/" + (1 + random.nextInt(3)) + "/1990";
+        Date expire = new Date(1 + random.nextInt(12), 1 + random.nextInt(28), 2030);
+        String location = LOCATIONS[random.nextInt(LOCATIONS.length)];
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Member("F" + name, "L" + (name % 7), dob, expire, location);
+            case 1:
+                return new Family("F" + name, "L" + (name % 7), dob, expire, location);
+            default:
+                return new Premium("F" + name, "L" + (name % 7), dob, expire, location);
+        }
+    }
+
+    /**
+     * Sorts what members print as, for lists whose order is not fixed
+     * @param members the members
+     * @return the sorted strings
+     */
+    private List<String> sorted(ArrayList<Member> members) {
+        List<String> strings = new ArrayList<>();
+        for (Member member : members) {
+            strings.add(member.toString());
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+
+    /**
+     * Runs a print method and returns what it printed
+     * @param print the print method to run
+     * @return the printed text
+     */
+    private String printed(Runnable print) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            print.run();
+        }
+        finally {
+            System.setOut(console);
+        }
+        return out.toString();
+    }
+}
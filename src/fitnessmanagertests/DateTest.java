@@ -154,4 +154,75 @@ public class DateTest {
         }
     }
 
-}
\ No newline at end of file
+    @org.junit.Test
+    /**
+     * Tests that dates compare by year, then month, then day,
+     * and that equal valid dates from Date.of are the same object
+     */
+    public void test_compare_and_interned_dates_true() {
+        int monthTestCase10[]= {12, 1, 2, 2, 11};
+        int dayTestCase10[]= {31, 1, 28, 29, 30};
+        int yearTestCase10[]= {1999, 2000, 2000, 2000, 2000};
+
+        for (int i = 0; i + 1 < monthTestCase10.length; i++) {
+            Date earlier = new Date(monthTestCase10[i], dayTestCase10[i], yearTestCase10[i]);
+            Date later = new Date(monthTestCase10[i + 1], dayTestCase10[i + 1], yearTestCase10[i + 1]);
+            assertTrue(earlier.compareTo(later) < 0);
+            assertTrue(later.compareTo(earlier) > 0);
+            assertSame(Date.of(monthTestCase10[i], dayTestCase10[i], yearTestCase10[i]),
+                    Date.of(monthTestCase10[i] + "/" + dayTestCase10[i] + "/" + yearTestCase10[i]));
+        }
+        assertEquals(new Date(2, 29, 2000), Date.of(2, 29, 2000));
+        assertEquals("2/29/2000", Date.of(2, 29, 2000).toString());
+    }
+
+    @org.junit.Test
+    /**
+     * Tests reading dates from text, where malformed text gives null
+     * instead of throwing
+     */
+    public void test_parse_dates_and_malformed_dates() {
+        String validTestCase11[]= {"1/02/2003", "12/31/1999", "2/29/2000", "13/40/2000", "-1/5/+2000"};
+        Date expectedTestCase11[]= {new Date(1, 2, 2003), new Date(12, 31, 1999), new Date(2, 29, 2000),
+                new Date(13, 40, 2000), new Date(-1, 5, 2000)};
+        String malformedTestCase11[]= {"", "1/2", "1/2/", "/1/2003", "1//2003", "1/2/2003/4", "a/2/2003",
+                "1/2/2003 ", "1/-/2003", "1/2/12345678901"};
+
+        for (int i = 0; i < validTestCase11.length; i++) {
+            assertEquals(expectedTestCase11[i], Date.parse(validTestCase11[i]));
+        }
+        for (int i = 0; i < malformedTestCase11.length; i++) {
+            assertNull(Date.parse(malformedTestCase11[i]));
+        }
+    }
+
+    @org.junit.Test
+    /**
+     * Tests dates whose month, day or year are too large or negative to
+     * pack, which keep the fields they were made with and still compare
+     * by year, then month, then day
+     */
+    public void test_dates_outside_packed_range_keep_fields() {
+        int monthTestCase12[] = {300, -1, 2, 1};
+        int dayTestCase12[] = {5, 2, 29, -40};
+        int yearTestCase12[] = {2000, 2000, 40000, -70000};
+        String expectedTestCase12[] = {"300/5/2000", "-1/2/2000", "2/29/40000", "1/-40/-70000"};
+
+        for (int i = 0; i < monthTestCase12.length; i++) {
+            Date date = new Date(monthTestCase12[i], dayTestCase12[i], yearTestCase12[i]);
+            assertEquals(monthTestCase12[i], date.getMonth());
+            assertEquals(dayTestCase12[i], date.getDay());
+            assertEquals(yearTestCase12[i], date.getYear());
+            assertEquals(expectedTestCase12[i], date.toString());
+            assertEquals(date, Date.parse(expectedTestCase12[i]));
+            assertEquals(date, Date.of(monthTestCase12[i], dayTestCase12[i], yearTestCase12[i]));
+            assertEquals(expectedTestCase12[i], new Date(expectedTestCase12[i]).toString());
+        }
+        assertTrue(new Date(2, 29, 40000).isValid());
+        assertFalse(new Date(300, 5, 2000).isValid());
+        assertNotEquals(new Date(300, 5, 2000), new Date(0, 5, 2000));
+        assertTrue(new Date(300, 5, 2000).compareTo(new Date(12, 31, 2000)) > 0);
+        assertTrue(new Date(1, 1, 40000).compareTo(new Date(12, 31, 32767)) > 0);
+        assertTrue(new Date(1, -40, -70000).compareTo(new Date(1, 1, -32768)) < 0);
+    }
+}
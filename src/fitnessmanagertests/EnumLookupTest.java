@@ -0,0 +1,99 @@
+package fitnessmanagertests;
+
+import fitnessmanager.*;
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * EnumLookupTest is a JUnit class to test the stringToLocation, stringToClassName, stringToInstructor,
+ * stringToTime and intToMonth methods, which look enum constants up by name or number
+ * It checks every constant's name in upper, lower and mixed case, and names that aren't constants:
+ * empty, unknown with the length of a real name, and a real name with its middle character changed
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class EnumLookupTest {
+    /**
+     * Every constant is found by its name in any case
+     */
+    @Test
+    public void test_Every_Constant_Any_Case_True() {
+        assertFound(Location.values(), Location::stringToLocation);
+        assertFound(ClassName.values(), ClassName::stringToClassName);
+        assertFound(Instructor.values(), Instructor::stringToInstructor);
+        assertFound(Time.values(), Time::stringToTime);
+    }
+
+    /**
+     * Names that aren't constants, including ones with the same length,
+     * first and last character as a constant, aren't found
+     */
+    @Test
+    public void test_Unknown_Names_Not_Found_False() {
+        assertNotFound(Location.values(), Location::stringToLocation, "NEWARK");
+        assertNotFound(ClassName.values(), ClassName::stringToClassName, "BOXING");
+        assertNotFound(Instructor.values(), Instructor::stringToInstructor, "BOB");
+        assertNotFound(Time.values(), Time::stringToTime, "SUNRISE");
+    }
+
+    /**
+     * Months are found by number from 1 to 12, and only those
+     */
+    @Test
+    public void test_Month_By_Number_True() {
+        assertNull(Month.intToMonth(0));
+        assertEquals(Month.JANUARY, Month.intToMonth(1));
+        assertEquals(Month.DECEMBER, Month.intToMonth(12));
+        assertNull(Month.intToMonth(13));
+        assertNull(Month.intToMonth(-1));
+        for (Month month : Month.values()) {
+            assertEquals(month, Month.intToMonth(month.getNumberMonth()));
+        }
+    }
+
+    /**
+     * Looks up each constant by its name in upper, lower and mixed case
+     * @param constants the constants
+     * @param lookup the method looking constants up by name
+     * @param <E> the enum
+     */
+    private static <E extends Enum<E>> void assertFound(E[] constants, Function<String, E> lookup) {
+        for (E constant : constants) {
+            String name = constant.name();
+            assertEquals(constant, lookup.apply(name));
+            assertEquals(constant, lookup.apply(name.toLowerCase()));
+            StringBuilder mixed = new StringBuilder();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                mixed.append(i % 2 == 0 ? Character.toLowerCase(c) : Character.toUpperCase(c));
+            }
+            assertEquals(constant, lookup.apply(mixed.toString()));
+        }
+    }
+
+    /**
+     * Checks that the empty string, an unknown name, and each constant's
+     * name with its middle character changed aren't found
+     * @param constants the constants
+     * @param lookup the method looking constants up by name
+     * @param unknown a name that isn't a constant, with the length of one
+     * @param <E> the enum
+     */
+    private static <E extends Enum<E>> void assertNotFound(E[] constants, Function<String, E> lookup, String unknown) {
+        assertNull(lookup.apply(""));
+        assertNull(lookup.apply(unknown));
+        assertNull(lookup.apply(unknown.toLowerCase()));
+        boolean sameLength = false;
+        for (E constant : constants) {
+            String name = constant.name();
+            sameLength |= name.length() == unknown.length();
+            int middle = name.length() / 2;
+            char changed = name.charAt(middle) == 'X' ? 'Y' : 'X';
+            assertNull(lookup.apply(name.substring(0, middle) + changed + name.substring(middle + 1)));
+            assertNull(lookup.apply(name + name.charAt(name.length() - 1)));
+        }
+        assertTrue(unknown + " has the length of a constant", sameLength);
+    }
+}
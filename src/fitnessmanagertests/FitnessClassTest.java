@@ -3,6 +3,11 @@ package fitnessmanagertests;
 import fitnessmanager.*;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 /**
@@ -171,4 +176,212 @@ public class FitnessClassTest {
             assertTrue(fc.checkOutGuest(p1));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks a member into classes at two times through the schedule
+     * The class they're in at each time is found as the conflict for
+     * another class at that time, including after dropping one
+     */
+    @Test
+    public void test_Schedule_Finds_Class_At_Each_Time_True() {
+        ClassSchedule cs = new ClassSchedule();
+        FitnessClass morning = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        FitnessClass evening = new FitnessClass("CARDIO", "DAVIS", "EVENING", "EDISON");
+        FitnessClass otherMorning = new FitnessClass("SPINNING", "KIM", "MORNING", "EDISON");
+        FitnessClass otherEvening = new FitnessClass("SPINNING", "KIM", "EVENING", "EDISON");
+        FitnessClass afternoon = new FitnessClass("SPINNING", "KIM", "AFTERNOON", "EDISON");
+        cs.addClass(morning);
+        cs.addClass(evening);
+        Member member = new Member("John", "Doe", "1/20/2003");
+
+        assertTrue(cs.checkIn(morning, member));
+        assertTrue(cs.checkIn(evening, member));
+        assertFalse(cs.checkIn(evening, member));
+        assertEquals(morning, cs.conflictingClass(member, otherMorning));
+        assertEquals(evening, cs.conflictingClass(new Member("JOHN", "DOE", "1/20/2003"), otherEvening));
+        assertNull(cs.conflictingClass(member, afternoon));
+        assertNull(cs.conflictingClass(member, morning));
+        assertEquals(EnrollmentStatus.TIME_CONFLICT, cs.enroll(otherMorning, member));
+
+        assertTrue(cs.checkOut(morning, member));
+        assertFalse(cs.checkOut(morning, member));
+        assertNull(cs.conflictingClass(member, otherMorning));
+        assertEquals(evening, cs.conflictingClass(member, otherEvening));
+    }
+
+    /**
+     * Classes held on some days of the week, at any start time, conflict
+     * only if a session of one overlaps a session of the other,
+     * including a session running past Sunday midnight
+     */
+    @Test
+    public void test_Weekly_Sessions_Overlap_True() {
+        ClassSchedule cs = new ClassSchedule();
+        FitnessClass monWed = new FitnessClass("PILATES", "JENNIFER", "7:15", "EDISON");
+        monWed.setWeeklySchedule(FitnessClass.parseDays("MON,WED"), 45);
+        FitnessClass lateSunday = new FitnessClass("CARDIO", "DAVIS", "23:30", "EDISON");
+        lateSunday.setWeeklySchedule(FitnessClass.parseDays("sunday"), 90);
+        Member member = new Member("John", "Doe", "1/20/2003");
+        assertTrue(cs.checkIn(monWed, member));
+        assertTrue(cs.checkIn(lateSunday, member));
+
+        FitnessClass tuesday = new FitnessClass("SPINNING", "KIM", "7:15", "EDISON");
+        tuesday.setWeeklySchedule(FitnessClass.parseDays("TUE"), 60);
+        FitnessClass wednesdayAtEight = new FitnessClass("SPINNING", "KIM", "8:00", "EDISON");
+        wednesdayAtEight.setWeeklySchedule(FitnessClass.parseDays("WED"), 60);
+        FitnessClass wednesdayAtSevenFifty = new FitnessClass("SPINNING", "KIM", "7:50", "EDISON");
+        wednesdayAtSevenFifty.setWeeklySchedule(FitnessClass.parseDays("WED"), 60);
+        FitnessClass earlyMonday = new FitnessClass("SPINNING", "KIM", "0:45", "EDISON");
+        earlyMonday.setWeeklySchedule(FitnessClass.parseDays("MON"), 30);
+
+        assertNull(cs.conflictingClass(member, tuesday));
+        assertNull(cs.conflictingClass(member, wednesdayAtEight));
+        assertEquals(monWed, cs.conflictingClass(member, wednesdayAtSevenFifty));
+        assertEquals(lateSunday, cs.conflictingClass(member, earlyMonday));
+        assertEquals(0, FitnessClass.parseDays("MO"));
+        assertEquals(-1, FitnessClass.parseStartMinute("24:00"));
+    }
+
+    /**
+     * A class created without a time is held at the default time,
+     * so it prints a real time and conflicts with classes at that time
+     */
+    @Test
+    public void test_Class_Without_Time_Held_In_Morning_True() {
+        FitnessClass fc = new FitnessClass("SPINNING", "KIM", "EDISON");
+        assertEquals("SPINNING - KIM, 9:30, EDISON", fc.toString());
+        assertEquals("MORNING", fc.getTimeName());
+        ClassSchedule cs = new ClassSchedule();
+        Member member = new Member("John", "Doe", "1/20/2003");
+        assertTrue(cs.checkIn(new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON"), member));
+        assertEquals(EnrollmentStatus.TIME_CONFLICT, cs.enroll(fc, member));
+    }
+
+    /**
+     * Dropping members from the schedule takes them off every roster and
+     * waitlist, returns their guests' passes, and clears their sessions,
+     * so they can check into a class at the same time again
+     */
+    @Test
+    public void test_Schedule_Drop_Members_Clears_Classes_True() {
+        ClassSchedule cs = new ClassSchedule();
+        FitnessClass pilates = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        FitnessClass spinning = new FitnessClass("SPINNING", "KIM", "MORNING", "EDISON");
+        pilates.setCapacity(2);
+        cs.addClass(pilates);
+        cs.addClass(spinning);
+        Family family = new Family("Cy", "Dee", "2/2/1980");
+        Member standard = new Member("Al", "Bo", "1/1/1990");
+        Member waiting = new Member("Gus", "Hay", "4/4/1991");
+        assertTrue(cs.checkIn(pilates, family));
+        assertTrue(family.useGuestPass());
+        assertTrue(pilates.checkInGuest(family));
+        assertEquals(EnrollmentStatus.WAITLISTED, cs.enroll(pilates, standard));
+        assertEquals(EnrollmentStatus.WAITLISTED, cs.enroll(pilates, waiting));
+
+        assertEquals(2, cs.dropMembers(new HashSet<>(Arrays.asList(family, standard))));
+        assertNull(pilates.find(family));
+        assertFalse(pilates.isWaitlisted(standard));
+        assertNotNull(pilates.find(waiting));
+        assertTrue(family.useGuestPass());
+        assertNull(cs.conflictingClass(family, spinning));
+        assertNull(cs.conflictingClass(standard, spinning));
+        assertEquals(pilates, cs.conflictingClass(waiting, spinning));
+        assertTrue(cs.checkIn(spinning, family));
+    }
+
+    /**
+     * Guests are listed in the order they checked in, even when members
+     * take turns bringing them, and dropping a guest takes out that
+     * member's earliest one, the same as an ArrayList of members where
+     * check-in adds and dropping removes the first equal member
+     */
+    @Test
+    public void test_Guest_List_Check_In_Order_True() {
+        FitnessClass fc = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        Member ann = new Premium("Ann", "Lee", "1/1/1990");
+        Member bob = new Premium("Bob", "Kim", "2/2/1980");
+        fc.checkInGuest(ann);
+        fc.checkInGuest(bob);
+        fc.checkInGuest(ann);
+        assertEquals(Arrays.asList(ann, bob, ann), new ArrayList<>(fc.getGuestList()));
+        assertTrue(fc.checkOutGuest(ann));
+        assertEquals(Arrays.asList(bob, ann), new ArrayList<>(fc.getGuestList()));
+
+        Member[] members = {ann, bob, new Family("Cy", "Dee", "3/3/1970")};
+        ArrayList<Member> expected = new ArrayList<>(Arrays.asList(bob, ann));
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            Member member = members[random.nextInt(members.length)];
+            if (random.nextBoolean()) {
+                assertTrue(fc.checkInGuest(member));
+                expected.add(member);
+            }
+            else {
+                assertEquals(expected.remove(member), fc.checkOutGuest(member));
+            }
+            assertEquals(expected, new ArrayList<>(fc.getGuestList()));
+            assertEquals(expected.size(), fc.getGuestListSize());
+        }
+    }
+
+    /**
+     * Fills a class of two, then checks that the waitlist puts premium
+     * before family before standard members, and that dropping a
+     * member or guest gives the spot to the first one waiting
+     */
+    @Test
+    public void test_Waitlist_Promotes_By_Tier_True() {
+        FitnessClass fc = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        fc.setCapacity(2);
+        Member standard = new Member("Al", "Bo", "1/1/1990");
+        Family family = new Family("Cy", "Dee", "2/2/1980");
+        Premium premium = new Premium("Ed", "Fox", "3/3/1970");
+        Member first = new Member("Gus", "Hay", "4/4/1991");
+
+        assertEquals(EnrollmentStatus.CHECKED_IN, fc.enroll(first));
+        assertTrue(fc.checkInGuest(family));
+        assertFalse(fc.checkInGuest(family));
+        assertEquals(EnrollmentStatus.WAITLISTED, fc.enroll(standard));
+        assertEquals(EnrollmentStatus.WAITLISTED, fc.enroll(family));
+        assertEquals(EnrollmentStatus.WAITLISTED, fc.enroll(premium));
+        assertEquals(EnrollmentStatus.ALREADY_WAITLISTED, fc.enroll(premium));
+        assertEquals(premium, fc.getWaitlist().get(0));
+        assertEquals(family, fc.getWaitlist().get(1));
+        assertEquals(standard, fc.getWaitlist().get(2));
+
+        assertTrue(fc.checkOutGuest(family));
+        assertNotNull(fc.find(premium));
+        assertTrue(fc.checkOut(first));
+        assertNotNull(fc.find(family));
+        assertTrue(fc.isWaitlisted(standard));
+        assertTrue(fc.checkOut(standard));
+        assertFalse(fc.isWaitlisted(standard));
+        assertEquals(2, fc.getMemberListSize());
+    }
+
+    /**
+     * Many threads check members into a class of ten at once
+     * Exactly ten get a spot and every other member is waitlisted
+     */
+    @Test
+    public void test_Concurrent_Check_Ins_Respect_Capacity_True() throws InterruptedException {
+        FitnessClass fc = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        fc.setCapacity(10);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++){
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50; i++){
+                    fc.enroll(new Member("First" + thread, "Last" + i, "1/1/1990"));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads){
+            thread.join();
+        }
+        assertEquals(10, fc.getMemberListSize());
+        assertEquals(190, fc.getWaitlist().size());
+    }
+}
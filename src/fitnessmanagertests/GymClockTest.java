@@ -0,0 +1,77 @@
+package fitnessmanagertests;
+
+import fitnessmanager.Date;
+import fitnessmanager.GymClock;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+/**
+ * GymClockTest is a JUnit class to test the today and eighteenYearsAgo methods in the GymClock class
+ * It runs through tests with a fixed clock and with a clock that moves into the next day
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class GymClockTest {
+
+    /**
+     * A clock whose time is set by the test
+     */
+    private static class SettableClock extends Clock {
+        private Instant instant;
+
+        /**
+         * Creates a clock at a time
+         * @param instant the time of the clock
+         */
+        SettableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+
+    /**
+     * A fixed clock always gives the same day, and the cutoff for
+     * joining is the same day 18 years earlier, including on a leap day
+     */
+    @Test
+    public void test_Fixed_Clock_Today_True() {
+        GymClock clock = new GymClock(Clock.fixed(Instant.parse("2024-02-29T12:00:00Z"), ZoneOffset.UTC));
+        assertEquals(new Date(2, 29, 2024), clock.today());
+        assertEquals(new Date(2, 29, 2006), clock.eighteenYearsAgo());
+        assertTrue(new Date(2, 28, 2006).compareTo(clock.eighteenYearsAgo()) <= 0);
+        assertTrue(new Date(3, 1, 2006).compareTo(clock.eighteenYearsAgo()) > 0);
+    }
+
+    /**
+     * Today stays the same until the clock reaches midnight,
+     * then moves to the next day
+     */
+    @Test
+    public void test_Today_Changes_At_Midnight_True() {
+        SettableClock time = new SettableClock(Instant.parse("2023-12-31T23:59:59Z"));
+        GymClock clock = new GymClock(time);
+        assertEquals(new Date(12, 31, 2023), clock.today());
+        time.instant = Instant.parse("2024-01-01T00:00:00Z");
+        assertEquals(new Date(1, 1, 2024), clock.today());
+        assertEquals(new Date(1, 1, 2006), clock.eighteenYearsAgo());
+    }
+}
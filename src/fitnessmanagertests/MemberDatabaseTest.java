@@ -0,0 +1,251 @@
+package fitnessmanagertests;
+
+import fitnessmanager.*;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * MemberDatabaseTest is a JUnit class to test the add, remove and findMember methods in the MemberDatabase class
+ * It runs through several tests for finding members regardless of name case, after other members are removed,
+ * and while several threads add and remove members at once
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class MemberDatabaseTest {
+
+    /**
+     * Members that are equal (names not case-sensitive, same birthday)
+     * must also have equal hash codes so the database can find them
+     */
+    @Test
+    public void test_Equal_Members_Have_Equal_Hash_Codes_True() {
+        String m1FirstNameCase1[]= {"John", "DUKE", "roy", "Carl", "bIlL"};
+        String m1LastNameCase1[]= {"Doe", "ellington", "BROOKS", "Brown", "sCANLAN"};
+        String m2FirstNameCase1[]= {"JOHN", "Duke", "Roy", "carl", "Bill"};
+        String m2LastNameCase1[]= {"doe", "Ellington", "Brooks", "BROWN", "Scanlan"};
+        String m1DOBCase1[]= {"1/02/1999", "1/02/1950", "2/02/1999", "3/02/1949", "5/02/2000"};
+
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            Member p1 = new Member(m1FirstNameCase1[i], m1LastNameCase1[i], m1DOBCase1[i]);
+            Member p2 = new Member(m2FirstNameCase1[i], m2LastNameCase1[i], m1DOBCase1[i]);
+            assertEquals(p1, p2);
+            assertEquals(p1.hashCode(), p2.hashCode());
+        }
+    }
+
+    /**
+     * Adds members and finds them again with differently cased names
+     * Adding the same member twice fails
+     */
+    @Test
+    public void test_Find_Members_Ignoring_Case_True() {
+        MemberDatabase db = new MemberDatabase();
+        String m1FirstNameCase1[]= {"John", "Duke", "Roy", "Carl", "Bill"};
+        String m1LastNameCase1[]= {"Doe", "Ellington", "Brooks", "Brown", "Scanlan"};
+        String m1DOBCase1[]= {"1/02/1999", "1/02/1950", "2/02/1999", "3/02/1949", "5/02/2000"};
+
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            assertTrue(db.add(new Member(m1FirstNameCase1[i], m1LastNameCase1[i], m1DOBCase1[i],
+                    new Date(12, 31, 2030), "EDISON")));
+        }
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            Member probe = new Member(m1FirstNameCase1[i].toUpperCase(), m1LastNameCase1[i].toLowerCase(), m1DOBCase1[i]);
+            assertNotNull(db.findMember(probe));
+            assertFalse(db.add(probe));
+        }
+    }
+
+    /**
+     * Removes members one at a time and checks that the members
+     * after them in the list can still be found and removed
+     */
+    @Test
+    public void test_Find_Members_After_Remove_True() {
+        MemberDatabase db = new MemberDatabase();
+        String m1FirstNameCase1[]= {"John", "Duke", "Roy", "Carl", "Bill"};
+        String m1LastNameCase1[]= {"Doe", "Ellington", "Brooks", "Brown", "Scanlan"};
+        String m1DOBCase1[]= {"1/02/1999", "1/02/1950", "2/02/1999", "3/02/1949", "5/02/2000"};
+
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            db.add(new Member(m1FirstNameCase1[i], m1LastNameCase1[i], m1DOBCase1[i], new Date(12, 31, 2030), "EDISON"));
+        }
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            Member probe = new Member(m1FirstNameCase1[i], m1LastNameCase1[i], m1DOBCase1[i]);
+            assertTrue(db.remove(probe));
+            assertNull(db.findMember(probe));
+            for (int j = i + 1; j < m1FirstNameCase1.length; j++) {
+                assertNotNull(db.findMember(new Member(m1FirstNameCase1[j], m1LastNameCase1[j], m1DOBCase1[j])));
+            }
+        }
+        assertTrue(db.isEmpty());
+    }
+
+    /**
+     * Several threads add members at once, each also adding and removing
+     * a member of its own, and one member shared by all threads
+     * Every member is found afterwards, sorted print has each one once,
+     * and the shared member was only added by one thread
+     */
+    @Test
+    public void test_Concurrent_Add_And_Remove_True() throws InterruptedException {
+        MemberDatabase db = new MemberDatabase();
+        int threads = 4;
+        int perThread = 500;
+        db.add(new Member("Ann", "Zed", "1/02/1990", new Date(12, 31, 2030), "EDISON"));
+        String[] first = printed(db, SortCategory.NAME, null);     //Builds the index the threads then keep up to date
+        assertArrayEquals(new String[] {"Ann Zed, DOB: 1/2/1990, Membership expires 12/31/2030, Location: EDISON, 08837, MIDDLESEX"},
+                first);
+        int[] sharedAdds = new int[1];
+        int[] failures = new int[1];                //Asserts in other threads would not fail the test
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    db.add(new Member("F" + thread, "L" + i, "1/02/1990", new Date(12, 31, 2030), "EDISON"));
+                    Member temp = new Member("T" + thread, "L" + i, "1/02/1990", new Date(12, 31, 2030), "EDISON");
+                    if (!db.add(temp) || !db.remove(temp)) {
+                        synchronized (failures) {
+                            failures[0]++;
+                        }
+                    }
+                }
+                if (db.add(new Member("Shared", "Member", "1/02/1990", new Date(12, 31, 2030), "EDISON"))) {
+                    synchronized (sharedAdds) {
+                        sharedAdds[0]++;
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(0, failures[0]);
+        assertEquals(1, sharedAdds[0]);
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertNotNull(db.findMember(new Member("F" + t, "L" + i, "1/02/1990")));
+                assertNull(db.findMember(new Member("T" + t, "L" + i, "1/02/1990")));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            db.sortedPrint(SortCategory.NAME);
+            db.print();
+        }
+        finally {
+            System.setOut(console);
+        }
+        assertEquals(2 * (threads * perThread + 2), out.toString().split(System.lineSeparator()).length);
+    }
+
+    /**
+     * Finds the members expiring within a range of dates, in expiration
+     * order, including members expiring on the first and last date,
+     * and not members that were removed
+     */
+    @Test
+    public void test_Expiring_Between_Dates_True() {
+        MemberDatabase db = new MemberDatabase();
+        db.add(new Member("John", "Doe", "1/02/1999", new Date(3, 31, 2024), "EDISON"));
+        db.add(new Member("Duke", "Ellington", "1/02/1950", new Date(4, 1, 2024), "EDISON"));
+        db.add(new Member("Roy", "Brooks", "2/02/1999", new Date(4, 7, 2024), "EDISON"));
+        db.add(new Member("Carl", "Brown", "3/02/1949", new Date(4, 8, 2024), "EDISON"));
+        db.add(new Member("Bill", "Scanlan", "5/02/2000", new Date(4, 3, 2024), "EDISON"));
+        db.remove(new Member("Bill", "Scanlan", "5/02/2000"));
+
+        ArrayList<Member> expiring = db.expiringBetween(new Date(4, 1, 2024), new Date(4, 7, 2024));
+        assertEquals(2, expiring.size());
+        assertEquals(new Member("Duke", "Ellington", "1/02/1950"), expiring.get(0));
+        assertEquals(new Member("Roy", "Brooks", "2/02/1999"), expiring.get(1));
+        assertTrue(db.expiringBetween(new Date(4, 7, 2024), new Date(4, 1, 2024)).isEmpty());
+    }
+
+    /**
+     * Members at different locations, printed by name, are merged from
+     * every location into one list ordered by last name then first name,
+     * and printing one location only prints its members
+     */
+    @Test
+    public void test_Sorted_Print_Merges_Locations_True() {
+        MemberDatabase db = new MemberDatabase();
+        String m1FirstNameCase1[]= {"John", "Duke", "Roy", "Carl", "Bill"};
+        String m1LastNameCase1[]= {"Doe", "Ellington", "Brooks", "Brown", "Scanlan"};
+        String m1DOBCase1[]= {"1/02/1999", "1/02/1950", "2/02/1999", "3/02/1949", "5/02/2000"};
+        String locations[]= {"EDISON", "SOMERVILLE", "EDISON", "FRANKLIN", "BRIDGEWATER"};
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            db.add(new Member(m1FirstNameCase1[i], m1LastNameCase1[i], m1DOBCase1[i], new Date(12, 31, 2030), locations[i]));
+        }
+
+        String[] byName = printed(db, SortCategory.NAME, null);
+        String[] expected = {"Roy Brooks", "Carl Brown", "John Doe", "Duke Ellington", "Bill Scanlan"};
+        assertEquals(expected.length, byName.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(byName[i].startsWith(expected[i]));
+        }
+        String[] atEdison = printed(db, SortCategory.NAME, Location.EDISON);
+        assertEquals(2, atEdison.length);
+        assertTrue(atEdison[0].startsWith("Roy Brooks"));
+        assertTrue(atEdison[1].startsWith("John Doe"));
+    }
+
+    /**
+     * Prints the members of a database sorted by a category
+     * @param db the database to print
+     * @param category the category to sort members by
+     * @param location the location to print the members of, null for every location
+     * @return the printed lines
+     */
+    private String[] printed(MemberDatabase db, SortCategory category, Location location) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            if (location == null) {
+                db.sortedPrint(category);
+            }
+            else {
+                db.sortedPrint(category, location);
+            }
+        }
+        finally {
+            System.setOut(console);
+        }
+        return out.toString().split(System.lineSeparator());
+    }
+
+    /**
+     * Finds members by the start of their last name, then their first
+     * name, ignoring case, and stops finding a member once removed
+     */
+    @Test
+    public void test_Search_By_Name_Prefix_True() {
+        MemberDatabase db = new MemberDatabase();
+        String m1FirstNameCase1[]= {"John", "Duke", "Roy", "Carl", "Bill"};
+        String m1LastNameCase1[]= {"Doe", "Ellington", "Brooks", "Brown", "Scanlan"};
+        String m1DOBCase1[]= {"1/02/1999", "1/02/1950", "2/02/1999", "3/02/1949", "5/02/2000"};
+        for (int i = 0; i < m1FirstNameCase1.length; i++) {
+            db.add(new Member(m1FirstNameCase1[i], m1LastNameCase1[i], m1DOBCase1[i], new Date(12, 31, 2030), "EDISON"));
+        }
+
+        ArrayList<Member> matches = db.searchByPrefix("bRo", 10);
+        assertEquals(2, matches.size());
+        assertEquals(new Member("Roy", "Brooks", "2/02/1999"), matches.get(0));
+        assertEquals(new Member("Carl", "Brown", "3/02/1949"), matches.get(1));
+        assertEquals(1, db.searchByPrefix("bro", 1).size());
+        assertEquals(new Member("Duke", "Ellington", "1/02/1950"), db.searchByPrefix("DU", 10).get(0));
+
+        db.remove(new Member("Roy", "Brooks", "2/02/1999"));
+        db.add(new Member("Bob", "Brook", "4/02/1980", new Date(12, 31, 2030), "EDISON"));
+        matches = db.searchByPrefix("Brook", 10);
+        assertEquals(1, matches.size());
+        assertEquals(new Member("Bob", "Brook", "4/02/1980"), matches.get(0));
+    }
+}
@@ -0,0 +1,115 @@
+package fitnessmanager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * ChunkedReaderTest is a JUnit class to test how the read method in the ChunkedReader class splits files
+ * It reads files in small chunks and checks that each chunk only holds whole lines, that no line is
+ * lost or read twice, and that files without a final line break or smaller than a chunk are read whole
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class ChunkedReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Lines crossing the end of a chunk go to the chunk they start in,
+     * and every chunk after the first starts right after a line break
+     */
+    @Test
+    public void test_Line_Crossing_Chunk_Edge_Kept_Whole_True() throws IOException {
+        String text = "short\na line longer than one chunk\n\nx\nmedium line\nend\n";
+        ArrayList<String> chunks = ChunkedReader.read(file(text), ChunkedReaderTest::chunk, 8);
+        assertTrue(chunks.size() > 1);
+        for (String chunk : chunks) {
+            assertTrue(chunk, chunk.endsWith("\n"));
+        }
+        assertEquals(text, String.join("", chunks));
+        assertEquals(lines(text), lines(String.join("", chunks)));
+    }
+
+    /**
+     * The last line is read even without a line break after it
+     */
+    @Test
+    public void test_No_Final_Line_Break_Last_Line_Read_True() throws IOException {
+        String text = "first line\nsecond line\nlast line, no break";
+        ArrayList<String> chunks = ChunkedReader.read(file(text), ChunkedReaderTest::chunk, 8);
+        assertEquals(text, String.join("", chunks));
+        assertEquals("last line, no break", chunks.get(chunks.size() - 1));
+    }
+
+    /**
+     * A file smaller than one chunk is read as a single chunk, and an
+     * empty file as no chunks
+     */
+    @Test
+    public void test_File_Smaller_Than_Chunk_One_Chunk_True() throws IOException {
+        String text = "Ann Lee 1/2/1990 3/1/2030 Edison\nBob Kim 2/3/1985 12/1/2030 Edison";
+        assertEquals(Arrays.asList(text), ChunkedReader.read(file(text), ChunkedReaderTest::chunk));
+        assertEquals(Arrays.asList(text), ChunkedReader.read(file(text), ChunkedReaderTest::chunk, text.length()));
+        assertTrue(ChunkedReader.read(file(""), ChunkedReaderTest::chunk, 8).isEmpty());
+    }
+
+    /**
+     * An IOException a parser wraps to get it out of the pool is
+     * thrown as the IOException again
+     */
+    @Test
+    public void test_Parser_IOException_Rethrown_True() throws IOException {
+        Path path = file("a\nb\n");
+        try {
+            ChunkedReader.read(path, bytes -> {
+                throw new UncheckedIOException(new IOException("disk gone"));
+            }, 2);
+            fail("read " + path);
+        }
+        catch (IOException e) {
+            assertEquals("disk gone", e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a chunk into its text
+     * @param bytes the chunk
+     * @return the chunk as text
+     */
+    private static String chunk(ByteBuffer bytes) {
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * Splits text into lines
+     * @param text the text
+     * @return the lines, without their line breaks
+     */
+    private static List<String> lines(String text) {
+        return Arrays.asList(text.split("\n", -1));
+    }
+
+    /**
+     * Writes text to a new file
+     * @param text the text
+     * @return the file
+     * @throws IOException if the file can't be written
+     */
+    private Path file(String text) throws IOException {
+        Path path = this.folder.newFile().toPath();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
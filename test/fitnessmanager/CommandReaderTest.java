@@ -0,0 +1,156 @@
+package fitnessmanager;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+/**
+ * CommandReaderTest is a JUnit class to test the hasNext, next and hasBuffered methods in the CommandReader class
+ * It reads commands through buffers smaller than the tokens and from streams that hand over a few bytes
+ * at a time, and checks that the tokens are the same as a Scanner's, including tokens split across the
+ * end of the buffer and tokens longer than the buffer
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class CommandReaderTest {
+    private static final String COMMANDS = "A John Doe 1/20/2003 BRIDGEWATER\r\n"
+            + "\tC  PILATES JENNIFER EDISON Mary Lindsey 12/1/1989\n\n"
+            + "PF\nAPPLESAUCE-IS-A-VERY-LONG-COMMAND-NAME x\n   Q";
+
+    /**
+     * Tokens split across the end of the buffer, and tokens longer than
+     * the whole buffer, are read whole for every buffer size
+     */
+    @Test
+    public void test_Tokens_Across_Buffer_Edge_Same_As_Scanner_True() throws IOException {
+        ArrayList<String> expected = scanner(COMMANDS);
+        for (int bufferBytes = 1; bufferBytes <= COMMANDS.length() + 1; bufferBytes++) {
+            assertEquals("buffer of " + bufferBytes, expected, tokens(new CommandReader(stream(COMMANDS), bufferBytes)));
+        }
+    }
+
+    /**
+     * A stream that hands over only a few bytes per read, like a console
+     * or a pipe, is refilled until each token ends
+     */
+    @Test
+    public void test_Short_Reads_Refill_Same_As_Scanner_True() throws IOException {
+        ArrayList<String> expected = scanner(COMMANDS);
+        for (int chunk = 1; chunk <= 7; chunk++) {
+            for (int bufferBytes : new int[] {2, 5, 64}) {
+                CommandReader reader = new CommandReader(trickle(COMMANDS, chunk), bufferBytes);
+                assertEquals("reads of " + chunk + ", buffer of " + bufferBytes, expected, tokens(reader));
+            }
+        }
+    }
+
+    /**
+     * A token ending the stream without a separator after it is read,
+     * and after the last token there is nothing more to read
+     */
+    @Test
+    public void test_End_Of_Stream_No_More_Tokens_False() throws IOException {
+        CommandReader reader = new CommandReader(stream("  PF   Q"), 4);
+        assertEquals("PF", reader.next());
+        assertEquals("Q", reader.next());
+        assertFalse(reader.hasNext());
+        assertFalse(reader.hasBuffered());
+        try {
+            reader.next();
+            fail("read past the end");
+        }
+        catch (NoSuchElementException e) {
+            assertFalse(reader.hasNext());
+        }
+        assertFalse(new CommandReader(stream(" \n\t\r\n "), 2).hasNext());
+    }
+
+    /**
+     * hasBuffered only sees tokens already read from the stream,
+     * so it never waits for more input
+     */
+    @Test
+    public void test_Has_Buffered_Only_Read_Tokens_True() throws IOException {
+        CommandReader reader = new CommandReader(trickle("PF Q\nPM", 5), 16);
+        assertFalse(reader.hasBuffered());
+        assertEquals("PF", reader.next());
+        assertTrue(reader.hasBuffered());
+        assertEquals("Q", reader.next());
+        assertFalse(reader.hasBuffered());
+        assertEquals("PM", reader.next());
+        assertFalse(reader.hasBuffered());
+    }
+
+    /**
+     * Reads every token with a Scanner
+     * @param text the commands
+     * @return the tokens, in order
+     */
+    private static ArrayList<String> scanner(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        Scanner sc = new Scanner(text);
+        while (sc.hasNext()) {
+            tokens.add(sc.next());
+        }
+        return tokens;
+    }
+
+    /**
+     * Reads every token with a CommandReader
+     * @param reader the reader
+     * @return the tokens, in order
+     * @throws IOException if the stream can't be read
+     */
+    private static ArrayList<String> tokens(CommandReader reader) throws IOException {
+        ArrayList<String> tokens = new ArrayList<>();
+        while (reader.hasNext()) {
+            tokens.add(reader.next());
+        }
+        return tokens;
+    }
+
+    /**
+     * Creates a stream of text
+     * @param text the text
+     * @return a stream of the text's bytes
+     */
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a stream of text that hands over a few bytes per read
+     * @param text the text
+     * @param chunk most bytes handed over per read
+     * @return a stream of the text's bytes
+     */
+    private static InputStream trickle(String text, int chunk) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return this.position < bytes.length ? bytes[this.position++] & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (this.position == bytes.length) {
+                    return -1;
+                }
+                int count = Math.min(Math.min(len, chunk), bytes.length - this.position);
+                System.arraycopy(bytes, this.position, b, off, count);
+                this.position += count;
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package fitnessmanager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * IntervalTreeTest is a JUnit class to test the add, remove and overlapping methods in the IntervalTree class
+ * It checks intervals touching at their ends, equal intervals with different values, and many random
+ * adds and removes against a plain list of intervals searched one by one
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class IntervalTreeTest {
+    /**
+     * Intervals don't include their end, so intervals that only touch
+     * don't overlap, and values come back ordered by start
+     */
+    @Test
+    public void test_Overlapping_Excludes_Touching_Intervals_True() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(20, 30, "c");
+        tree.add(0, 10, "a");
+        tree.add(10, 20, "b");
+        tree.add(5, 25, "long");
+        assertEquals("[a, long, b]", tree.overlapping(9, 11).toString());
+        assertEquals("[long, b, c]", tree.overlapping(19, 21).toString());
+        assertEquals("[c]", tree.overlapping(25, 40).toString());
+        assertTrue(tree.overlapping(30, 40).isEmpty());
+        assertTrue(tree.overlapping(-5, 0).isEmpty());
+        assertEquals("[a, long, b, c]", tree.overlapping(Integer.MIN_VALUE, Integer.MAX_VALUE).toString());
+    }
+
+    /**
+     * Removing takes out only the interval with the same start, end and
+     * value, even when other intervals share its start or its value
+     */
+    @Test
+    public void test_Remove_Only_Matching_Interval_True() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(0, 10, "a");
+        tree.add(0, 10, "b");
+        tree.add(0, 20, "a");
+        assertFalse(tree.remove(0, 10, "c"));
+        assertFalse(tree.remove(1, 10, "a"));
+        assertTrue(tree.remove(0, 10, "a"));
+        assertFalse(tree.remove(0, 10, "a"));
+        assertEquals(2, tree.overlapping(5, 6).size());
+        assertEquals("[a]", tree.overlapping(15, 16).toString());
+        assertTrue(tree.remove(0, 20, "a"));
+        assertTrue(tree.remove(0, 10, "b"));
+        assertTrue(tree.isEmpty());
+        assertTrue(tree.overlapping(0, 10).isEmpty());
+    }
+
+    /**
+     * Random adds and removes, many sharing starts, find the same
+     * intervals as checking every interval in a list
+     */
+    @Test
+    public void test_Random_Changes_Same_As_List_True() {
+        Random random = new Random(7);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        ArrayList<int[]> list = new ArrayList<>();              //{start, end, value}
+        for (int step = 0; step < 5000; step++) {
+            if (list.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(200);
+                int[] interval = {start, start + 1 + random.nextInt(30), random.nextInt(20)};
+                tree.add(interval[0], interval[1], interval[2]);
+                list.add(interval);
+            }
+            else {
+                int[] interval = list.remove(random.nextInt(list.size()));
+                assertTrue(tree.remove(interval[0], interval[1], interval[2]));
+            }
+            int start = random.nextInt(240) - 20;
+            int end = start + random.nextInt(40);
+            assertEquals(overlapping(list, start, end), sorted(tree.overlapping(start, end)));
+            assertEquals(list.isEmpty(), tree.isEmpty());
+        }
+    }
+
+    /**
+     * Finds the values of intervals overlapping a range by checking each one
+     * @param list the intervals, each {start, end, value}
+     * @param start start of the range
+     * @param end end of the range, not included in it
+     * @return values of the overlapping intervals, sorted
+     */
+    private static ArrayList<Integer> overlapping(ArrayList<int[]> list, int start, int end) {
+        ArrayList<Integer> values = new ArrayList<>();
+        for (int[] interval : list) {
+            if (interval[0] < end && interval[1] > start) {
+                values.add(interval[2]);
+            }
+        }
+        return sorted(values);
+    }
+
+    /**
+     * Sorts values, so results in different orders can be compared
+     * @param values the values
+     * @return the values, sorted
+     */
+    private static ArrayList<Integer> sorted(ArrayList<Integer> values) {
+        values.sort(null);
+        return values;
+    }
+}
@@ -0,0 +1,288 @@
+package fitnessmanager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JournalTest is a JUnit class to test the logging, recover and checkpoint methods in the Journal class
+ * It logs changes, simulates a crash by dropping records not yet synced or by cutting a segment short,
+ * then recovers into an empty database and schedule and checks that exactly the records forced to disk
+ * (and after the snapshot) are replayed, and that checkpoints delete the segments a snapshot includes.
+ * It also checks that output held by a SyncedOutputStream is only written once its changes are on disk
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class JournalTest {
+    private static final Member ANN = new Member("Ann", "Lee", "1/02/1990", new Date(12, 31, 2030), "EDISON");
+    private static final Family BOB = new Family("Bob", "Kim", "2/03/1985", new Date(12, 31, 2030), "EDISON");
+    private static final Premium CY = new Premium("Cy", "Do", "3/04/1980", new Date(12, 31, 2030), "FRANKLIN");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path base;
+
+    /**
+     * Names the journal in the test's own folder
+     */
+    @Before
+    public void setUp() {
+        this.base = this.folder.getRoot().toPath().resolve("gymJournal");
+    }
+
+    /**
+     * Every kind of record replays to the same members, guest passes and rosters
+     */
+    @Test
+    public void test_Replay_Every_Record_Type_True() throws IOException {
+        Journal journal = open(1);
+        FitnessClass pilates = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        journal.logAdd(ANN);
+        journal.logAdd(BOB);
+        journal.logAdd(CY);
+        journal.logCheckIn(pilates, ANN);
+        journal.logCheckIn(pilates, BOB);
+        journal.logGuestIn(pilates, BOB);
+        journal.logGuestIn(pilates, CY);
+        journal.logGuestOut(pilates, CY);
+        journal.logCheckOut(pilates, ANN);
+        journal.logRemove(ANN);
+        journal.close();
+
+        MemberDatabase db = new MemberDatabase();
+        ClassSchedule cs = schedule();
+        assertEquals(10, new Journal(this.base, 1).recover(0, db, cs));
+        assertNull(db.findMember(ANN));
+        assertEquals(BOB.getExpire().toString(), db.findMember(BOB).getExpire().toString());
+        assertEquals(0, ((Family) db.findMember(BOB)).getGuestPasses());
+        assertEquals(3, ((Family) db.findMember(CY)).getGuestPasses());
+        FitnessClass replayed = cs.classAt(ClassName.PILATES, Instructor.JENNIFER, Location.EDISON);
+        assertEquals("[Bob Kim]", names(replayed.getMemberList()));
+        assertEquals("[Bob Kim]", names(replayed.getGuestList()));
+    }
+
+    /**
+     * Records still waiting for their group when the process stops are
+     * lost, the groups forced to disk before them are replayed, and the
+     * journal keeps numbering records after the last one replayed
+     */
+    @Test
+    public void test_Records_Not_Synced_Are_Lost_True() throws IOException {
+        Journal journal = open(2);
+        journal.logAdd(ANN);
+        journal.logAdd(BOB);                                    //Group of 2 forced to disk
+        journal.logAdd(CY);                                     //Waiting, never written
+        assertEquals(3, journal.lastSequence());
+
+        MemberDatabase db = new MemberDatabase();
+        Journal recovered = new Journal(this.base, 2);
+        assertEquals(2, recovered.recover(0, db, schedule()));
+        assertNotNull(db.findMember(BOB));
+        assertNull(db.findMember(CY));
+        assertEquals(2, recovered.lastSequence());
+        recovered.logAdd(CY);
+        recovered.close();
+        assertEquals(3, new Journal(this.base, 1).recover(0, new MemberDatabase(), schedule()));
+    }
+
+    /**
+     * A record cut short at the end of the last segment (a write
+     * interrupted by a crash) is cut off the file, the records before it
+     * are replayed, and records logged after recovering are kept
+     */
+    @Test
+    public void test_Torn_Tail_Is_Truncated_True() throws IOException {
+        Journal journal = open(1);
+        journal.logAdd(ANN);
+        journal.logAdd(BOB);
+        journal.close();
+        Path segment = segments().get(0);
+        long whole = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)){
+            channel.truncate(whole - 3);
+        }
+
+        MemberDatabase db = new MemberDatabase();
+        Journal recovered = new Journal(this.base, 1);
+        assertEquals(1, recovered.recover(0, db, schedule()));
+        assertNotNull(db.findMember(ANN));
+        assertNull(db.findMember(BOB));
+        assertTrue(Files.size(segment) < whole - 3);
+        recovered.logAdd(CY);
+        recovered.close();
+
+        db = new MemberDatabase();
+        assertEquals(2, new Journal(this.base, 1).recover(0, db, schedule()));
+        assertNotNull(db.findMember(CY));
+    }
+
+    /**
+     * A corrupt record in a segment before the last isn't a torn write,
+     * so recovery stops instead of dropping the records after it
+     */
+    @Test
+    public void test_Corrupt_Earlier_Segment_Not_Recovered_False() throws IOException {
+        Journal journal = open(1);
+        journal.logAdd(ANN);
+        journal.checkpoint(0);                                  //Starts a second segment, keeps the first
+        journal.logAdd(BOB);
+        journal.close();
+        Path first = segments().get(0);
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(first, bytes);
+        try {
+            new Journal(this.base, 1).recover(0, new MemberDatabase(), schedule());
+            fail("recovered a corrupt journal");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().endsWith("journal is corrupt"));
+        }
+    }
+
+    /**
+     * Records at or before the snapshot's sequence number aren't
+     * replayed, and a checkpoint deletes the segments the snapshot
+     * includes while keeping the records logged after it
+     */
+    @Test
+    public void test_Checkpoint_Drops_Records_In_Snapshot_True() throws IOException {
+        Journal journal = open(1);
+        journal.logAdd(ANN);
+        journal.logAdd(BOB);
+        long snapshot = journal.lastSequence();
+        journal.checkpoint(snapshot);
+        journal.logAdd(CY);
+        journal.close();
+        assertEquals(1, segments().size());
+        assertEquals("gymJournal." + (snapshot + 1), segments().get(0).getFileName().toString());
+
+        MemberDatabase db = new MemberDatabase();
+        assertEquals(1, new Journal(this.base, 1).recover(snapshot, db, schedule()));
+        assertNull(db.findMember(ANN));
+        assertNotNull(db.findMember(CY));
+
+        journal = open(1);
+        journal.logRemove(CY);
+        journal.checkpoint(snapshot);                           //Older snapshot: the segment with CY is kept
+        journal.close();
+        assertEquals(2, segments().size());
+        assertEquals(1, new Journal(this.base, 1).recover(snapshot + 1, new MemberDatabase(), schedule()));
+    }
+
+    /**
+     * Output acknowledging a change is held while the change's group is
+     * still waiting, and is only written out, on flush or once the buffer
+     * fills, after the journal has forced the group to disk
+     */
+    @Test
+    public void test_Output_Written_After_Sync_True() throws IOException {
+        Journal journal = open(64);
+        ArrayList<String> written = new ArrayList<>();         //Each write, with whether the journal was synced
+        OutputStream console = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written.add(journal.synced() + " " + (char) b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                written.add(journal.synced() + " " + new String(bytes, offset, length));
+            }
+        };
+        Runnable sync = () -> {
+            try {
+                journal.sync();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        PrintStream out = new PrintStream(new SyncedOutputStream(console, sync, 64), false);
+        journal.logAdd(ANN);
+        out.print("Ann Lee added.");
+        assertTrue(written.isEmpty());
+        assertFalse(journal.synced());
+        out.flush();
+        assertEquals("[true Ann Lee added.]", written.toString());
+
+        journal.logAdd(BOB);
+        out.print("Bob Kim added.");
+        assertEquals(1, written.size());
+        out.print("x".repeat(64));                              //Fills the buffer
+        assertEquals(2, written.size());
+        assertTrue(written.get(1).startsWith("true Bob Kim added.x"));
+        journal.close();
+    }
+
+    /**
+     * Opens the test's journal, replaying whatever it already has
+     * @param groupSize records to wait for before forcing them to disk
+     * @return the journal
+     * @throws IOException if the journal can't be read or written
+     */
+    private Journal open(int groupSize) throws IOException {
+        Journal journal = new Journal(this.base, groupSize);
+        journal.recover(0, new MemberDatabase(), schedule());
+        return journal;
+    }
+
+    /**
+     * Creates the schedule records are replayed on
+     * @return a schedule with the one class the tests use
+     */
+    private ClassSchedule schedule() {
+        ClassSchedule cs = new ClassSchedule();
+        cs.addClass(new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON"));
+        return cs;
+    }
+
+    /**
+     * Lists the journal's segment files
+     * @return the segments, oldest first
+     * @throws IOException if the folder can't be read
+     */
+    private ArrayList<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(this.folder.getRoot().toPath())) {
+            return files.sorted((a, b) -> Long.compare(start(a), start(b)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Reads the sequence number a segment file is named after
+     * @param segment the segment file
+     * @return sequence number of its first record
+     */
+    private long start(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    /**
+     * Lists the names of members, in order
+     * @param members the members
+     * @return "[first last, ...]"
+     */
+    private String names(Iterable<Member> members) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Member member : members) {
+            names.add(member.getFname() + " " + member.getLname());
+        }
+        return names.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package fitnessmanager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+/**
+ * MemberLoaderTest is a JUnit class to test the load method in the MemberLoader class
+ * It loads a member list fixture with good and bad lines, and checks that the members loaded, the
+ * members printed and the lines reported as errors are the same as when the file is read the way
+ * the member list was first loaded: line by line with a Scanner, building members from Strings
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class MemberLoaderTest {
+    private static final String FIXTURE = String.join("\n",
+            "Ann Lee 1/2/1990 3/1/2030 Edison",
+            "Bob   Kim\t2/03/1985 12/1/2020 BRIDGEWATER\r",
+            "",
+            "Cy Do 3/4/1980 5/31/2031",
+            "Dee Ray 4/5/1970 6/1/2030 franklin extra",
+            "Ed Fox 13/x/2000 6/1/2030 Edison",
+            "Flo Gee 1/2 6/1/2030 Edison",
+            "Gus Hill 7/8/1960 6/1/2030 Newark",
+            "   \t ",
+            "Ann Lee 1/2/1990 3/1/2030 Edison",
+            "Hal Ivy 2/29/2001 1/1/2029 somerville",
+            "Ivy Jay -1/+2/1999 1/1/2029 PISCATAWAY",
+            "Kim Lo 1/300/1990 2/29/40000 Edison",
+            "Jo Kay 12/31/1999 7/15/2032 Piscataway");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Loads the same members, prints the same lines and reports the same
+     * bad lines, with the same line numbers, as the Scanner path, whether
+     * the file is read as one chunk or in chunks of a few lines
+     */
+    @Test
+    public void test_Load_Same_As_Scanner_True() throws IOException {
+        Path path = this.folder.newFile().toPath();
+        Files.write(path, FIXTURE.getBytes(StandardCharsets.UTF_8));
+        Loaded expected = scanner(path.toFile());
+        assertEquals(5, expected.errors.size());
+
+        for (int chunkBytes : new int[] {Constant.LOAD_CHUNK_BYTES.getValue(), 64, 1}) {
+            MemberDatabase db = new MemberDatabase();
+            ByteArrayOutputStream echoed = new ByteArrayOutputStream();
+            LoadReport report = new MemberLoader(db, new PrintStream(echoed), true).load(path, chunkBytes);
+            assertEquals(expected.loaded, report.getLoaded());
+            assertEquals(expected.errors, report.getErrors());
+            assertEquals(expected.printed.toString(), echoed.toString());
+            assertEquals(printed(expected.db), printed(db));
+        }
+    }
+
+    /**
+     * With echoing off nothing is printed, and the members are still loaded
+     */
+    @Test
+    public void test_Load_Without_Echo_Prints_Nothing_True() throws IOException {
+        Path path = this.folder.newFile().toPath();
+        Files.write(path, FIXTURE.getBytes(StandardCharsets.UTF_8));
+        MemberDatabase db = new MemberDatabase();
+        ByteArrayOutputStream echoed = new ByteArrayOutputStream();
+        new MemberLoader(db, new PrintStream(echoed), false).load(path, 64);
+        assertEquals(0, echoed.size());
+        assertEquals(printed(scanner(path.toFile()).db), printed(db));
+    }
+
+    /**
+     * What the Scanner path loaded
+     */
+    private static final class Loaded {
+        private final MemberDatabase db = new MemberDatabase();
+        private final ArrayList<String> errors = new ArrayList<>();
+        private final StringBuilder printed = new StringBuilder();
+        private int loaded;
+    }
+
+    /**
+     * Loads a member list line by line with a Scanner, building each member
+     * from its fields as Strings, the way the member list was first loaded,
+     * and keeps the lines that can't be read instead of stopping at them
+     * @param file the member list
+     * @return the members, printed lines and errors
+     * @throws IOException if the file can't be read
+     */
+    private static Loaded scanner(File file) throws IOException {
+        Loaded loaded = new Loaded();
+        try (Scanner lines = new Scanner(file, StandardCharsets.UTF_8.name())) {
+            for (long line = 1; lines.hasNextLine(); line++) {
+                String text = lines.nextLine();
+                ArrayList<String> fields = new ArrayList<>();
+                Scanner sc = new Scanner(text);
+                while (sc.hasNext()) {
+                    fields.add(sc.next());
+                }
+                if (fields.isEmpty()) {
+                    continue;
+                }
+                if (fields.size() != Constant.MEMBER_FIELDS.getValue()) {
+                    loaded.errors.add("line " + line + ": " + text.trim() + ": malformed line");
+                    continue;
+                }
+                Member toAdd;
+                try {
+                    toAdd = new Member(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4));
+                }
+                catch (NumberFormatException e) {
+                    loaded.errors.add("line " + line + ": " + fields.get(0) + " " + fields.get(1) + ": malformed date");
+                    continue;
+                }
+                if (toAdd.getLocation() == null) {
+                    loaded.errors.add("line " + line + ": " + fields.get(0) + " " + fields.get(1) + ": invalid location");
+                    continue;
+                }
+                loaded.db.add(toAdd);
+                loaded.loaded++;
+                loaded.printed.append(toAdd.toString()).append(System.lineSeparator());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Prints the members of a database, in the order they were added
+     * @param db the database
+     * @return what was printed
+     */
+    private static String printed(MemberDatabase db) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            db.print();
+        }
+        finally {
+            System.setOut(console);
+        }
+        return out.toString();
+    }
+}
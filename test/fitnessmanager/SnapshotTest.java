@@ -0,0 +1,166 @@
+package fitnessmanager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * SnapshotTest is a JUnit class to test the save and restore methods in the Snapshot class
+ * It saves members and class rosters, restores them into an empty database and schedule, and checks
+ * that nothing was lost or changed, that entries which no longer fit are reported, and that corrupt
+ * files are rejected
+ * @author Arya Shetty, John Greaney-Cheng
+ */
+public class SnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Restores members (with the guest passes they have left), classes,
+     * rosters, guests and waitlists as they were saved
+     */
+    @Test
+    public void test_Save_Then_Restore_Same_Members_And_Rosters_True() throws IOException {
+        MemberDatabase db = new MemberDatabase();
+        ClassSchedule cs = new ClassSchedule();
+        Member ann = new Member("Ann", "Lee", "1/02/1990", new Date(12, 31, 2030), "EDISON");
+        Family bob = new Family("Bob", "Kim", "2/03/1985", new Date(12, 31, 2030), "EDISON");
+        Premium cy = new Premium("Cy", "Do", "3/04/1980", new Date(12, 31, 2030), "FRANKLIN");
+        db.add(ann);
+        db.add(bob);
+        db.add(cy);
+        FitnessClass pilates = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        pilates.setCapacity(2);
+        FitnessClass cardio = new FitnessClass("CARDIO", "KIM", "AFTERNOON", "FRANKLIN");
+        cs.addClass(pilates);
+        cs.addClass(cardio);
+        assertEquals(EnrollmentStatus.CHECKED_IN, cs.enroll(pilates, ann));
+        assertEquals(EnrollmentStatus.CHECKED_IN, cs.enroll(pilates, bob));
+        assertEquals(EnrollmentStatus.WAITLISTED, cs.enroll(pilates, cy));
+        assertTrue(cy.useGuestPass());
+        assertTrue(cardio.checkInGuest(cy));
+        assertTrue(cy.useGuestPass());
+        assertTrue(cardio.checkInGuest(cy));
+        assertTrue(bob.useGuestPass());
+        assertTrue(cardio.checkInGuest(bob));
+
+        Path path = this.folder.getRoot().toPath().resolve("snapshot.bin");
+        assertEquals(3, Snapshot.save(path, db, cs, 42));
+        assertEquals(42, Snapshot.sequence(path));
+        MemberDatabase restoredDb = new MemberDatabase();
+        ClassSchedule restoredCs = new ClassSchedule();
+        LoadReport report = Snapshot.restore(path, restoredDb, restoredCs);
+        assertEquals(3, report.getLoaded());
+        assertTrue(report.getErrors().isEmpty());
+
+        assertEquals(ann.toString(), restoredDb.findMember(ann).toString());
+        assertEquals(0, ((Family) restoredDb.findMember(bob)).getGuestPasses());
+        assertEquals(1, ((Family) restoredDb.findMember(cy)).getGuestPasses());
+        FitnessClass restoredPilates = restoredCs.classAt(ClassName.PILATES, Instructor.JENNIFER, Location.EDISON);
+        FitnessClass restoredCardio = restoredCs.classAt(ClassName.CARDIO, Instructor.KIM, Location.FRANKLIN);
+        assertEquals(pilates.toString(), restoredPilates.toString());
+        assertEquals(2, restoredPilates.getCapacity());
+        assertEquals(names(pilates.getMemberList()), names(restoredPilates.getMemberList()));
+        assertEquals(names(pilates.getWaitlist()), names(restoredPilates.getWaitlist()));
+        assertEquals(names(cardio.getGuestList()), names(restoredCardio.getGuestList()));
+        assertSame(restoredDb.findMember(cy), restoredPilates.getWaitlist().get(0));
+        assertEquals(EnrollmentStatus.TIME_CONFLICT, restoredCs.enroll(
+                new FitnessClass("SPINNING", "DENISE", "MORNING", "BRIDGEWATER"), restoredDb.findMember(ann)));
+    }
+
+    /**
+     * A member whose class now has a time conflict with a class already
+     * in the schedule, and a guest whose class is now full, are left off
+     * the rosters and reported, and the rest is still restored. The guest
+     * pass the guest used goes back to their member
+     */
+    @Test
+    public void test_Restore_Reports_Entries_That_Do_Not_Fit_True() throws IOException {
+        MemberDatabase db = new MemberDatabase();
+        ClassSchedule cs = new ClassSchedule();
+        Member ann = new Member("Ann", "Lee", "1/02/1990", new Date(12, 31, 2030), "EDISON");
+        Family bob = new Family("Bob", "Kim", "2/03/1985", new Date(12, 31, 2030), "EDISON");
+        db.add(ann);
+        db.add(bob);
+        FitnessClass pilates = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        cs.addClass(pilates);
+        cs.enroll(pilates, ann);
+        cs.enroll(pilates, bob);
+        assertTrue(bob.useGuestPass());
+        pilates.checkInGuest(bob);
+        Path path = this.folder.getRoot().toPath().resolve("snapshot.bin");
+        Snapshot.save(path, db, cs, 0);
+
+        ClassSchedule busy = new ClassSchedule();
+        FitnessClass spinning = new FitnessClass("SPINNING", "DENISE", "MORNING", "BRIDGEWATER");
+        FitnessClass fullPilates = new FitnessClass("PILATES", "JENNIFER", "MORNING", "EDISON");
+        fullPilates.setCapacity(1);
+        busy.addClass(spinning);
+        busy.addClass(fullPilates);
+        assertEquals(EnrollmentStatus.CHECKED_IN, busy.enroll(spinning, ann));
+        LoadReport report = Snapshot.restore(path, new MemberDatabase(), busy);
+        assertEquals(2, report.getLoaded());
+        ArrayList<String> errors = report.getErrors();
+        assertEquals(2, errors.size());
+        assertEquals("Ann Lee in PILATES - JENNIFER, EDISON: time conflict", errors.get(0));
+        assertEquals("Bob Kim (guest) in PILATES - JENNIFER, EDISON: class is full", errors.get(1));
+        assertEquals("[Bob Kim]", names(fullPilates.getMemberList()).toString());
+        assertEquals(1, ((Family) fullPilates.getMemberList().iterator().next()).getGuestPasses());
+    }
+
+    /**
+     * A snapshot with a changed byte, or cut short, isn't restored
+     */
+    @Test
+    public void test_Corrupt_Snapshot_Not_Restored_False() throws IOException {
+        MemberDatabase db = new MemberDatabase();
+        db.add(new Member("Ann", "Lee", "1/02/1990", new Date(12, 31, 2030), "EDISON"));
+        Path path = this.folder.getRoot().toPath().resolve("snapshot.bin");
+        Snapshot.save(path, db, new ClassSchedule(), 0);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(path, bytes);
+        assertRestoreFails(path, "snapshot is corrupt");
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertRestoreFails(path, "snapshot is truncated");
+    }
+
+    /**
+     * Restores a snapshot that should be rejected
+     * @param path the snapshot file
+     * @param message the message it should be rejected with
+     */
+    private void assertRestoreFails(Path path, String message) {
+        MemberDatabase db = new MemberDatabase();
+        try {
+            Snapshot.restore(path, db, new ClassSchedule());
+            fail("restored " + path);
+        }
+        catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+        assertTrue(db.isEmpty());
+    }
+
+    /**
+     * Lists the names of members, in order
+     * @param members the members
+     * @return "first last" of each member
+     */
+    private ArrayList<String> names(Iterable<Member> members) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Member member : members) {
+            names.add(member.getFname() + " " + member.getLname());
+        }
+        return names;
+    }
+}